@@ -0,0 +1,80 @@
+package com.example.taskapp.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * 2つの JMH 結果（-rf json）を比較し、閾値以上遅くなったベンチマークがあれば失敗させる（例外で終了）。
+ * 引数: baseline.json current.json [閾値%（既定 10）]
+ * AverageTime / SampleTime は値が小さいほど速い、Throughput は大きいほど速いとして判定する。
+ */
+public final class JmhResultComparator {
+
+    private JmhResultComparator() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException(
+                    "usage: JmhResultComparator baseline.json current.json [threshold%]");
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        Map<String, JsonNode> baseline = load(new File(args[0]));
+        Map<String, JsonNode> current = load(new File(args[1]));
+
+        int regressions = 0;
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%-90s %12s -> %10.3f (new)%n", entry.getKey(), "",
+                        score(entry.getValue()));
+                continue;
+            }
+            double oldScore = score(before);
+            double newScore = score(entry.getValue());
+            boolean higherIsBetter = "thrpt".equals(entry.getValue().path("mode").asText());
+            double change = (newScore - oldScore) / oldScore * 100.0;
+            double slowdown = higherIsBetter ? -change : change;
+            boolean regressed = slowdown >= threshold;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-90s %10.3f -> %10.3f %s %+6.1f%%%s%n", entry.getKey(), oldScore,
+                    newScore, unit(entry.getValue()), change, regressed ? "  REGRESSION" : "");
+        }
+
+        if (regressions > 0) {
+            throw new IllegalStateException(regressions + " regression(s) over " + threshold + "%");
+        }
+        System.out.println("No regressions over " + threshold + "%");
+    }
+
+    // キーはベンチマーク名 + パラメータ
+    private static Map<String, JsonNode> load(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            String key = result.path("benchmark").asText();
+            JsonNode params = result.path("params");
+            if (!params.isMissingNode()) {
+                key += " " + params;
+            }
+            results.put(key, result);
+        }
+        return results;
+    }
+
+    private static double score(JsonNode result) {
+        return result.path("primaryMetric").path("score").asDouble();
+    }
+
+    private static String unit(JsonNode result) {
+        return Objects.toString(result.path("primaryMetric").path("scoreUnit").asText(), "");
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.taskapp.benchmark;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import com.example.taskapp.repository.UserRepository;
+import com.example.taskapp.security.JwtAuthenticationFilter;
+import com.example.taskapp.security.JwtUtil;
+import com.example.taskapp.security.UserIdCache;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * JwtAuthenticationFilter 1リクエスト分のコスト（トークン検証 + ユーザーID解決 + SecurityContext 設定）。
+ * verifiedCache … 検証済みトークンキャッシュの有無
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final String EMAIL = "bench@example.com";
+
+    @Param({ "true", "false" })
+    public boolean verifiedCache;
+
+    private JwtAuthenticationFilter filter;
+    private MockHttpServletRequest authenticated;
+    private MockHttpServletRequest anonymous;
+    private MockHttpServletResponse response;
+    private FilterChain chain;
+
+    @Setup
+    public void setUp() {
+        JwtUtil jwtUtil = new JwtUtil(verifiedCache ? 10_000 : 0);
+
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findIdByEmail(EMAIL)).thenReturn(Optional.of(1L));
+        UserIdCache userIdCache = new UserIdCache(userRepository, 10_000, Duration.ofMinutes(10));
+
+        filter = new JwtAuthenticationFilter(jwtUtil, userIdCache, new SimpleMeterRegistry());
+
+        authenticated = new MockHttpServletRequest("GET", "/api/tasks");
+        authenticated.addHeader("Authorization", "Bearer " + jwtUtil.generateToken(EMAIL));
+        anonymous = new MockHttpServletRequest("GET", "/api/tasks/public");
+        response = new MockHttpServletResponse();
+        chain = (req, res) -> { };
+    }
+
+    @Benchmark
+    public Authentication bearerToken() throws ServletException, IOException {
+        SecurityContextHolder.clearContext();
+        filter.doFilter(authenticated, response, chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+
+    @Benchmark
+    public Authentication noToken() throws ServletException, IOException {
+        SecurityContextHolder.clearContext();
+        filter.doFilter(anonymous, response, chain);
+        return SecurityContextHolder.getContext().getAuthentication();
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.taskapp.benchmark;
+
+import java.security.Key;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.taskapp.security.JwtUtil;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+/**
+ * JWT 検証コストの比較。
+ * legacy … 毎回 Key / JwtParser を生成し、extractEmail + validateToken で2回パース（旧実装）
+ * singleParse … 鍵・パーサー使い回し + 1回パース（キャッシュなし）
+ * cached … 上記 + 検証済みトークンキャッシュ
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilBenchmark {
+
+    private static final String SECRET_KEY = "mysecretkeymysecretkeymysecretkey12345";
+
+    private JwtUtil cachedJwtUtil;
+    private JwtUtil uncachedJwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        cachedJwtUtil = new JwtUtil(10_000);
+        uncachedJwtUtil = new JwtUtil(0);
+        token = uncachedJwtUtil.generateToken("bench@example.com");
+    }
+
+    @Benchmark
+    public boolean legacy() {
+        String email = Jwts.parserBuilder().setSigningKey(legacyKey()).build()
+                .parseClaimsJws(token).getBody().getSubject();
+        Jwts.parserBuilder().setSigningKey(legacyKey()).build().parseClaimsJws(token);
+        return email != null;
+    }
+
+    @Benchmark
+    public String singleParse() {
+        return uncachedJwtUtil.verify(token).map(Claims::getSubject).orElse(null);
+    }
+
+    @Benchmark
+    public String cached() {
+        return cachedJwtUtil.verify(token).map(Claims::getSubject).orElse(null);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return uncachedJwtUtil.generateToken("bench@example.com");
+    }
+
+    private static Key legacyKey() {
+        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.taskapp.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.taskapp.service.OpenAIService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * OpenAIService のレスポンス解析（Chat Completions の JSON → サブタスク名）。
+ * jsonArray … content が JSON 配列
+ * bulletLines … content が箇条書き（正規表現での行解析）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OpenAIServiceParseBenchmark {
+
+    private OpenAIService openAIService;
+    private String jsonArrayResponse;
+    private String bulletLinesResponse;
+
+    @Setup
+    public void setUp() throws Exception {
+        // 解析だけを測るので HTTP クライアント・キャッシュは使わない
+        openAIService = new OpenAIService(null, null, new SimpleMeterRegistry());
+        jsonArrayResponse = chatResponse("[\"資料を集める\", \"ドラフトを書く\", \"レビューを受ける\"]");
+        bulletLinesResponse = chatResponse("- 資料を集める\n- ドラフトを書く\n- レビューを受ける");
+    }
+
+    @Benchmark
+    public List<String> jsonArray() {
+        return openAIService.parseSubtasks(jsonArrayResponse);
+    }
+
+    @Benchmark
+    public List<String> bulletLines() {
+        return openAIService.parseSubtasks(bulletLinesResponse);
+    }
+
+    static String chatResponse(String content) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        ObjectNode message = objectMapper.createObjectNode().put("role", "assistant")
+                .put("content", content);
+        ObjectNode root = objectMapper.createObjectNode().put("id", "chatcmpl-bench")
+                .put("model", OpenAIService.SUBTASK_MODEL);
+        root.putArray("choices").addObject().put("index", 0).put("finish_reason", "stop")
+                .set("message", message);
+        return objectMapper.writeValueAsString(root);
+    }
+}
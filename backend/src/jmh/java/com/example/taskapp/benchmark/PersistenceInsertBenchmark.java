@@ -0,0 +1,209 @@
+package com.example.taskapp.benchmark;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * tasks / subtasks / ai_decision_logs への INSERT スループット（1トランザクションで rows 件）。
+ * Hibernate が ID 生成方式ごとに発行する JDBC 呼び出しを再現して比較する。
+ * identity … IDENTITY：1件ずつ即時 INSERT して生成キーを読む（バッチにならない。旧設定）
+ * pooledBatch … シーケンス pooled-lo：50件ごとに nextval 1回 + addBatch / executeBatch（現設定）
+ * 実際の Hibernate 設定でリポジトリの saveAll がこの呼び出しになっていることは BatchInsertTest が確かめる。
+ *
+ * 既定は H2（PostgreSQL モード）。PostgreSQL で測る場合は環境変数で接続先を指定する
+ * （reWriteBatchedInserts などは URL パラメータで application.properties と揃える）:
+ * BENCH_JDBC_URL='jdbc:postgresql://localhost:5432/taskdb?reWriteBatchedInserts=true&prepareThreshold=3'
+ * BENCH_JDBC_USER=postgres BENCH_JDBC_PASSWORD=postgres ./mvnw -Pbenchmark verify -Djmh.include=PersistenceInsert
+ * テーブルは bench_ 接頭辞の専用テーブルを作って使う。
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PersistenceInsertBenchmark {
+
+    // シーケンスの INCREMENT BY / allocationSize と同じ
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Param({ "tasks", "subtasks", "ai_decision_logs" })
+    public String table;
+
+    // 1トランザクションで INSERT する件数（サブタスク生成・AI 判断ログのバッチ書き込みの規模）
+    @Param({ "1", "50" })
+    public int rows;
+
+    private Connection connection;
+    // pooled-lo の払い出し状態（Hibernate と同じくトランザクションをまたいで使い回す）
+    private long nextId;
+    private long hiId;
+    private String tableName;
+    private String columns;
+    private String placeholders;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        String url = Objects.requireNonNullElse(System.getenv("BENCH_JDBC_URL"),
+                "jdbc:h2:mem:bench;MODE=PostgreSQL;DB_CLOSE_DELAY=-1");
+        connection = DriverManager.getConnection(url,
+                Objects.requireNonNullElse(System.getenv("BENCH_JDBC_USER"), "sa"),
+                Objects.requireNonNullElse(System.getenv("BENCH_JDBC_PASSWORD"), ""));
+
+        tableName = "bench_" + table;
+        String definition;
+        switch (table) {
+            case "tasks":
+                columns = "title, description, completed, created_at, due_date, priority, "
+                        + "priority_rank, state";
+                definition = "title VARCHAR(255), description VARCHAR(255), completed BOOLEAN NOT NULL, "
+                        + "created_at TIMESTAMP(6), due_date DATE, priority VARCHAR(255), "
+                        + "priority_rank INTEGER, state VARCHAR(255) NOT NULL, user_id BIGINT";
+                break;
+            case "subtasks":
+                columns = "title, completed, task_id";
+                definition = "title VARCHAR(255), completed BOOLEAN NOT NULL, task_id BIGINT NOT NULL";
+                break;
+            default:
+                columns = "task_id, suggested_state, reason, created_at";
+                definition = "task_id BIGINT, suggested_state VARCHAR(255), reason VARCHAR(1000), "
+                        + "created_at TIMESTAMP(6)";
+                break;
+        }
+        placeholders = "?" + ", ?".repeat(columns.split(",").length - 1);
+
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS " + tableName);
+            st.execute("DROP SEQUENCE IF EXISTS " + tableName + "_seq");
+            st.execute("CREATE TABLE " + tableName
+                    + " (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " + definition + ")");
+            st.execute("CREATE SEQUENCE " + tableName + "_seq START WITH 1 INCREMENT BY "
+                    + ALLOCATION_SIZE);
+        }
+        connection.setAutoCommit(false);
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() throws SQLException {
+        // 反復ごとに空にして、テーブル・インデックスの肥大で後の反復ほど遅くならないようにする
+        try (Statement st = connection.createStatement()) {
+            st.execute("TRUNCATE TABLE " + tableName);
+        }
+        connection.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.setAutoCommit(true);
+        try (Statement st = connection.createStatement()) {
+            st.execute("DROP TABLE IF EXISTS " + tableName);
+            st.execute("DROP SEQUENCE IF EXISTS " + tableName + "_seq");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public long identity() throws SQLException {
+        long lastId = 0;
+        String sql = "INSERT INTO " + tableName + " (" + columns + ") VALUES (" + placeholders + ")";
+        for (int i = 0; i < rows; i++) {
+            // Hibernate と同じく1件ごとに prepare（ドライバのステートメントキャッシュに当たる）
+            try (PreparedStatement ps = connection.prepareStatement(sql,
+                    Statement.RETURN_GENERATED_KEYS)) {
+                bind(ps, 1, i);
+                ps.executeUpdate();
+                try (ResultSet keys = ps.getGeneratedKeys()) {
+                    keys.next();
+                    lastId = keys.getLong(1);
+                }
+            }
+        }
+        connection.commit();
+        return lastId;
+    }
+
+    @Benchmark
+    public long pooledBatch() throws SQLException {
+        long lastId = 0;
+        String sql = "INSERT INTO " + tableName + " (id, " + columns + ") VALUES (?, " + placeholders
+                + ")";
+        try (PreparedStatement ps = connection.prepareStatement(sql)) {
+            for (int i = 0; i < rows; i++) {
+                // pooled-lo：nextval の値から ALLOCATION_SIZE 件はメモリ上で払い出す
+                if (nextId == hiId) {
+                    nextId = nextSequenceValue();
+                    hiId = nextId + ALLOCATION_SIZE;
+                }
+                lastId = nextId++;
+                ps.setLong(1, lastId);
+                bind(ps, 2, i);
+                ps.addBatch();
+                if ((i + 1) % ALLOCATION_SIZE == 0) {
+                    ps.executeBatch();
+                }
+            }
+            ps.executeBatch();
+        }
+        connection.commit();
+        return lastId;
+    }
+
+    private long nextSequenceValue() throws SQLException {
+        try (Statement st = connection.createStatement();
+                ResultSet rs = st.executeQuery("SELECT nextval('" + tableName + "_seq')")) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+
+    private void bind(PreparedStatement ps, int index, int i) throws SQLException {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.of(2026, 1, 1, 9, 0));
+        switch (table) {
+            case "tasks":
+                ps.setString(index, "タスク " + i);
+                ps.setString(index + 1, "説明");
+                ps.setBoolean(index + 2, false);
+                ps.setTimestamp(index + 3, now);
+                ps.setDate(index + 4, Date.valueOf(LocalDate.of(2026, 3, 1 + i % 28)));
+                ps.setString(index + 5, "high");
+                ps.setInt(index + 6, 0);
+                ps.setString(index + 7, "PENDING");
+                break;
+            case "subtasks":
+                ps.setString(index, "サブタスク " + i);
+                ps.setBoolean(index + 1, false);
+                ps.setLong(index + 2, 1L);
+                break;
+            default:
+                ps.setLong(index, i);
+                ps.setString(index + 1, "EXECUTING");
+                ps.setString(index + 2, "締切が近いため着手します。");
+                ps.setTimestamp(index + 3, now);
+                break;
+        }
+    }
+}
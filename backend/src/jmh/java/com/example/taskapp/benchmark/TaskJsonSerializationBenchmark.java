@@ -0,0 +1,79 @@
+package com.example.taskapp.benchmark;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.example.taskapp.dto.TaskResponse;
+import com.example.taskapp.entity.Task;
+import com.example.taskapp.entity.TaskState;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * タスク一覧の JSON シリアライズ（件数別）。
+ * dto … 現在のレスポンス（TaskResponse レコード）
+ * entity … Task エンティティを直接シリアライズ（旧実装）
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskJsonSerializationBenchmark {
+
+    @Param({ "10", "100", "1000" })
+    public int size;
+
+    private ObjectMapper objectMapper;
+    private List<TaskResponse> responses;
+    private List<Task> entities;
+
+    @Setup
+    public void setUp() {
+        // Spring Boot と同じ既定（日時は ISO 文字列）
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        responses = new ArrayList<>(size);
+        entities = new ArrayList<>(size);
+        LocalDateTime now = LocalDateTime.of(2026, 1, 1, 9, 0);
+        for (int i = 0; i < size; i++) {
+            Task task = new Task();
+            task.setId((long) i);
+            task.setTitle("タスク " + i);
+            task.setDescription("説明文 " + i);
+            task.setCreatedAt(now.plusMinutes(i));
+            task.setDueDate(i % 3 == 0 ? null : LocalDate.of(2026, 2, 1 + i % 28));
+            task.setPriority(i % 2 == 0 ? "high" : "low");
+            task.setState(TaskState.values()[i % 3]);
+            entities.add(task);
+            responses.add(TaskResponse.from(task));
+        }
+    }
+
+    @Benchmark
+    public byte[] dto() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(responses);
+    }
+
+    @Benchmark
+    public byte[] entity() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(entities);
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.taskapp.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.example.taskapp.cache.LocalCacheInvalidationBus;
+import com.example.taskapp.dto.TaskAiDecisionResponse;
+import com.example.taskapp.entity.Task;
+import com.example.taskapp.entity.TaskState;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * TaskAiDecisionService のプロンプト組み立てとレスポンス解析（単体判断 / 一括判断）。
+ * パッケージプライベートのメソッドを呼ぶため service パッケージに置いている。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TaskAiDecisionServiceBenchmark {
+
+    // 一括判断1回あたりのタスク数
+    @Param({ "10", "50" })
+    public int batchSize;
+
+    private TaskAiDecisionService service;
+    private Task task;
+    private List<Task> batch;
+    private String decisionResponse;
+    private String batchResponse;
+
+    @Setup
+    public void setUp() {
+        // AI 呼び出し・ログ保存は使わないので依存は null（ライブ更新は購読者なしの自ノード配信）
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        TaskEventHub eventHub = new TaskEventHub(new LocalCacheInvalidationBus(), meterRegistry,
+                64, Duration.ofMinutes(1), 1, 1);
+        service = new TaskAiDecisionService(null, null, null, null, eventHub,
+                meterRegistry, 100, 3000, 20, 4, Integer.MAX_VALUE, Duration.ofMinutes(1), 20, 10,
+                Duration.ofMinutes(1));
+
+        batch = new ArrayList<>(batchSize);
+        StringBuilder decisions = new StringBuilder("{\"decisions\":[");
+        for (int i = 0; i < batchSize; i++) {
+            Task t = new Task();
+            t.setId((long) i);
+            t.setTitle("タスク " + i);
+            t.setPriority(i % 2 == 0 ? "high" : "medium");
+            t.setDueDate(LocalDate.of(2026, 3, 1 + i % 28));
+            t.setState(TaskState.PENDING);
+            t.setCreatedAt(LocalDateTime.of(2026, 1, 1, 9, 0));
+            batch.add(t);
+            decisions.append(i == 0 ? "" : ",").append("{\"taskId\":").append(i)
+                    .append(",\"nextState\":\"EXECUTING\",\"reason\":\"締切が近いため着手します。\"}");
+        }
+        batchResponse = decisions.append("]}").toString();
+        task = batch.get(0);
+        decisionResponse = "{\"nextState\":\"EXECUTING\",\"reason\":\"優先度が高いため着手します。\"}";
+    }
+
+    @Benchmark
+    public String buildPrompt() {
+        return service.buildPrompt(task);
+    }
+
+    @Benchmark
+    public TaskAiDecisionResponse parseDecision() throws IOException {
+        return service.parseDecision(decisionResponse);
+    }
+
+    @Benchmark
+    public String buildBatchPrompt() {
+        return service.buildBatchPrompt(batch);
+    }
+
+    @Benchmark
+    public Map<Long, TaskAiDecisionResponse> parseBatchResponse() {
+        return service.parseBatchResponse(batchResponse);
+    }
+}
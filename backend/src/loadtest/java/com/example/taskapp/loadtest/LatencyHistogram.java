@@ -0,0 +1,81 @@
+package com.example.taskapp.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 1操作分のレイテンシ記録（マイクロ秒）。
+ * パーセンタイルは全サンプルから正確に計算し、分布は 2 のべき乗ミリ秒のバケットで出す。
+ */
+public class LatencyHistogram {
+
+    private long[] samples = new long[1024];
+    private int count;
+    private long errors;
+
+    public synchronized void record(long micros) {
+        if (count == samples.length) {
+            samples = Arrays.copyOf(samples, count * 2);
+        }
+        samples[count++] = micros;
+    }
+
+    public synchronized void recordError() {
+        errors++;
+    }
+
+    public synchronized Snapshot snapshot() {
+        return new Snapshot(Arrays.copyOf(samples, count), errors);
+    }
+
+    public static final class Snapshot {
+
+        private final long[] sorted;
+        private final long errors;
+
+        Snapshot(long[] samples, long errors) {
+            this.sorted = samples;
+            Arrays.sort(this.sorted);
+            this.errors = errors;
+        }
+
+        public int count() {
+            return sorted.length;
+        }
+
+        public long errors() {
+            return errors;
+        }
+
+        // p は 0〜100。サンプルがなければ 0
+        public double percentileMillis(double p) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1000.0;
+        }
+
+        public double maxMillis() {
+            return sorted.length == 0 ? 0 : sorted[sorted.length - 1] / 1000.0;
+        }
+
+        // 「〜N ms」ごとの件数（N = 1, 2, 4, 8, ...）
+        public Map<String, Integer> buckets() {
+            Map<String, Integer> buckets = new LinkedHashMap<>();
+            long upperMicros = 1000;
+            int i = 0;
+            while (i < sorted.length) {
+                int n = 0;
+                while (i < sorted.length && sorted[i] <= upperMicros) {
+                    n++;
+                    i++;
+                }
+                buckets.put("<=" + upperMicros / 1000 + "ms", n);
+                upperMicros *= 2;
+            }
+            return buckets;
+        }
+    }
+}
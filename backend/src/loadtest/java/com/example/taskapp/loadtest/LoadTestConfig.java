@@ -0,0 +1,59 @@
+package com.example.taskapp.loadtest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 負荷テストの設定（システムプロパティ loadtest.*）。
+ * mix は「操作=重み」のカンマ区切り（list / create / state / subtasks / decide）。
+ */
+public record LoadTestConfig(
+        Duration warmup,
+        Duration duration,
+        int concurrency,
+        int users,
+        int seedTasksPerUser,
+        Map<Operation, Integer> mix,
+        Duration openAiLatency,
+        Duration openAiJitter,
+        String profiles,
+        String report) {
+
+    public static LoadTestConfig fromSystemProperties() {
+        return new LoadTestConfig(
+                Duration.parse(property("warmup", "PT10S")),
+                Duration.parse(property("duration", "PT30S")),
+                Integer.parseInt(property("concurrency", "32")),
+                Integer.parseInt(property("users", "10")),
+                Integer.parseInt(property("seed-tasks", "20")),
+                parseMix(property("mix", "list=50,create=15,state=20,subtasks=10,decide=5")),
+                Duration.ofMillis(Long.parseLong(property("openai-latency-ms", "300"))),
+                Duration.ofMillis(Long.parseLong(property("openai-jitter-ms", "200"))),
+                property("profiles", ""),
+                property("report", "target/loadtest-report.json"));
+    }
+
+    private static String property(String name, String defaultValue) {
+        String value = System.getProperty("loadtest." + name);
+        return value == null || value.isBlank() ? defaultValue : value;
+    }
+
+    static Map<Operation, Integer> parseMix(String mix) {
+        Map<Operation, Integer> weights = new LinkedHashMap<>();
+        for (String entry : mix.split(",")) {
+            String[] parts = entry.trim().split("=");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("invalid loadtest.mix entry: " + entry);
+            }
+            int weight = Integer.parseInt(parts[1].trim());
+            if (weight > 0) {
+                weights.put(Operation.fromKey(parts[0].trim()), weight);
+            }
+        }
+        if (weights.isEmpty()) {
+            throw new IllegalArgumentException("loadtest.mix has no operations");
+        }
+        return weights;
+    }
+}
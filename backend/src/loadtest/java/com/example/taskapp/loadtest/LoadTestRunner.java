@@ -0,0 +1,244 @@
+package com.example.taskapp.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.example.taskapp.TaskappApplication;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * エンドツーエンドの負荷テスト。
+ * 1. OpenAI スタブを起動
+ * 2. アプリを loadtest プロファイル（H2 PostgreSQL モード）+ ランダムポートで起動
+ * 3. ユーザー登録・タスクの初期投入
+ * 4. concurrency 本のワーカーが mix の重みで操作を選んで実行（クローズドループ）
+ * 5. warmup 後の duration 間の結果を操作ごとに集計し、コンソールと JSON に出力
+ */
+public final class LoadTestRunner {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String[] PRIORITIES = { "high", "medium", "low" };
+    private static final String[] STATES = { "PENDING", "EXECUTING", "DONE" };
+
+    private final LoadTestConfig config;
+    private final String baseUrl;
+    private final HttpClient http;
+    private final Map<Operation, LatencyHistogram> histograms = new EnumMap<>(Operation.class);
+    private final List<Operation> weightedOperations = new ArrayList<>();
+    private final List<String> tokens = new ArrayList<>();
+    private final List<List<Long>> taskIds = new ArrayList<>();
+
+    private volatile long measureFrom;
+    private volatile long measureTo;
+
+    LoadTestRunner(LoadTestConfig config, String baseUrl) {
+        this.config = config;
+        this.baseUrl = baseUrl;
+        this.http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        config.mix().forEach((operation, weight) -> {
+            histograms.put(operation, new LatencyHistogram());
+            for (int i = 0; i < weight; i++) {
+                weightedOperations.add(operation);
+            }
+        });
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config = LoadTestConfig.fromSystemProperties();
+        String profiles = config.profiles().isBlank() ? "loadtest" : "loadtest," + config.profiles();
+
+        try (OpenAiStub stub = OpenAiStub.start(config.openAiLatency(), config.openAiJitter())) {
+            // application.properties より優先させるためシステムプロパティで渡す
+            System.setProperty("server.port", "0");
+            System.setProperty("openai.api.base-url", stub.baseUrl());
+            System.setProperty("OPENAI_API_KEY", "loadtest");
+            try (ConfigurableApplicationContext app = new SpringApplicationBuilder(
+                    TaskappApplication.class).profiles(profiles.split(",")).run()) {
+                int port = app.getEnvironment()
+                        .getRequiredProperty("local.server.port", Integer.class);
+                LoadTestRunner runner = new LoadTestRunner(config, "http://127.0.0.1:" + port);
+                runner.seed();
+                runner.run();
+                runner.report(profiles, stub.calls());
+            }
+        }
+    }
+
+    // ユーザー登録とタスクの初期投入（計測対象外）
+    void seed() throws IOException, InterruptedException {
+        for (int u = 0; u < config.users(); u++) {
+            ObjectNode body = MAPPER.createObjectNode()
+                    .put("email", "load" + u + "-" + System.nanoTime() + "@example.com")
+                    .put("password", "password");
+            HttpResponse<String> res = send("POST", "/auth/register", body, null);
+            tokens.add(MAPPER.readTree(res.body()).path("token").asText());
+            taskIds.add(new CopyOnWriteArrayList<>());
+            for (int i = 0; i < config.seedTasksPerUser(); i++) {
+                createTask(u);
+            }
+        }
+    }
+
+    void run() throws InterruptedException {
+        long start = System.nanoTime();
+        measureFrom = start + config.warmup().toNanos();
+        measureTo = measureFrom + config.duration().toNanos();
+
+        ExecutorService workers = Executors.newFixedThreadPool(config.concurrency());
+        for (int w = 0; w < config.concurrency(); w++) {
+            int user = w % config.users();
+            workers.execute(() -> {
+                while (System.nanoTime() < measureTo) {
+                    Operation operation = weightedOperations
+                            .get(ThreadLocalRandom.current().nextInt(weightedOperations.size()));
+                    execute(operation, user);
+                }
+            });
+        }
+        workers.shutdown();
+        long timeoutMs = config.warmup().plus(config.duration()).toMillis() + 60_000;
+        if (!workers.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+            workers.shutdownNow();
+        }
+    }
+
+    private void execute(Operation operation, int user) {
+        long begin = System.nanoTime();
+        boolean ok;
+        try {
+            ok = switch (operation) {
+                case LIST -> send("GET", "/api/tasks", null, tokens.get(user)).statusCode() == 200;
+                case CREATE -> createTask(user);
+                case STATE -> send("PUT", "/api/tasks/" + randomTask(user) + "/state",
+                        MAPPER.createObjectNode().put("state", randomOf(STATES)),
+                        tokens.get(user)).statusCode() == 200;
+                case SUBTASKS -> send("POST",
+                        "/api/tasks/" + randomTask(user) + "/subtasks/generate",
+                        MAPPER.createObjectNode().put("taskTitle", "負荷テスト " + System.nanoTime()),
+                        tokens.get(user)).statusCode() == 200;
+                case DECIDE -> send("POST", "/api/tasks/" + randomTask(user) + "/ai/decision",
+                        null, tokens.get(user)).statusCode() == 200;
+            };
+        } catch (IOException e) {
+            ok = false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+
+        long end = System.nanoTime();
+        if (begin < measureFrom || end > measureTo) {
+            return;
+        }
+        LatencyHistogram histogram = histograms.get(operation);
+        if (ok) {
+            histogram.record((end - begin) / 1000);
+        } else {
+            histogram.recordError();
+        }
+    }
+
+    private boolean createTask(int user) throws IOException, InterruptedException {
+        ObjectNode body = MAPPER.createObjectNode()
+                .put("title", "負荷テスト " + System.nanoTime())
+                .put("priority", randomOf(PRIORITIES))
+                .put("dueDate", LocalDate.now()
+                        .plusDays(ThreadLocalRandom.current().nextInt(30)).toString());
+        HttpResponse<String> res = send("POST", "/api/tasks", body, tokens.get(user));
+        if (res.statusCode() != 200) {
+            return false;
+        }
+        taskIds.get(user).add(MAPPER.readTree(res.body()).path("id").asLong());
+        return true;
+    }
+
+    private long randomTask(int user) {
+        List<Long> ids = taskIds.get(user);
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+
+    private static String randomOf(String[] values) {
+        return values[ThreadLocalRandom.current().nextInt(values.length)];
+    }
+
+    private HttpResponse<String> send(String method, String path, JsonNode body, String token)
+            throws IOException, InterruptedException {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(60))
+                .header("Content-Type", "application/json")
+                .method(method, body == null ? HttpRequest.BodyPublishers.noBody()
+                        : HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)));
+        if (token != null) {
+            request.header("Authorization", "Bearer " + token);
+        }
+        return http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+    }
+
+    void report(String profiles, long openAiCalls) throws IOException {
+        double seconds = config.duration().toMillis() / 1000.0;
+        ObjectNode root = MAPPER.createObjectNode();
+        root.put("profiles", profiles);
+        root.put("concurrency", config.concurrency());
+        root.put("durationSeconds", seconds);
+        root.put("openAiLatencyMs", config.openAiLatency().toMillis());
+        root.put("openAiJitterMs", config.openAiJitter().toMillis());
+        root.put("openAiCalls", openAiCalls);
+        ArrayNode operations = root.putArray("operations");
+
+        System.out.printf("%n%-42s %8s %7s %9s %9s %9s %9s %9s%n", "endpoint", "count",
+                "errors", "req/s", "p50(ms)", "p90(ms)", "p99(ms)", "max(ms)");
+        long total = 0;
+        for (Map.Entry<Operation, LatencyHistogram> entry : histograms.entrySet()) {
+            LatencyHistogram.Snapshot s = entry.getValue().snapshot();
+            total += s.count();
+            System.out.printf("%-42s %8d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                    entry.getKey().endpoint(), s.count(), s.errors(), s.count() / seconds,
+                    s.percentileMillis(50), s.percentileMillis(90), s.percentileMillis(99),
+                    s.maxMillis());
+
+            ObjectNode node = operations.addObject();
+            node.put("operation", entry.getKey().key());
+            node.put("endpoint", entry.getKey().endpoint());
+            node.put("count", s.count());
+            node.put("errors", s.errors());
+            node.put("throughput", s.count() / seconds);
+            node.put("p50", s.percentileMillis(50));
+            node.put("p90", s.percentileMillis(90));
+            node.put("p99", s.percentileMillis(99));
+            node.put("p999", s.percentileMillis(99.9));
+            node.put("max", s.maxMillis());
+            ObjectNode buckets = node.putObject("histogram");
+            s.buckets().forEach(buckets::put);
+        }
+        root.put("throughput", total / seconds);
+        System.out.printf("total %.1f req/s (OpenAI stub calls: %d)%n", total / seconds, openAiCalls);
+
+        File file = new File(config.report());
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        MAPPER.writerWithDefaultPrettyPrinter().writeValue(file, root);
+        System.out.println("Report written to " + file.getAbsolutePath());
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.taskapp.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import com.example.taskapp.service.OpenAIService;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * api.openai.com/v1 の代わりに使うローカルスタブ（POST /v1/chat/completions のみ）。
+ * latency + 0〜jitter のランダムな遅延のあと、リクエストの種類に合った content を返す。
+ * - サブタスク生成（SUBTASK_MODEL）… JSON 配列
+ * - 一括判断（プロンプトに taskId を含む）… {"decisions": [...]}
+ * - 単体判断 … {"nextState": ..., "reason": ...}
+ */
+public class OpenAiStub implements AutoCloseable {
+
+    private static final Pattern TASK_ID = Pattern.compile("taskId: (\\d+)");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Duration latency;
+    private final Duration jitter;
+    private final AtomicLong calls = new AtomicLong();
+
+    private OpenAiStub(Duration latency, Duration jitter) throws IOException {
+        this.latency = latency;
+        this.jitter = jitter;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.executor = Executors.newCachedThreadPool();
+        server.setExecutor(executor);
+        server.createContext("/v1/chat/completions", this::handle);
+    }
+
+    public static OpenAiStub start(Duration latency, Duration jitter) throws IOException {
+        OpenAiStub stub = new OpenAiStub(latency, jitter);
+        stub.server.start();
+        return stub;
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort() + "/v1";
+    }
+
+    public long calls() {
+        return calls.get();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        calls.incrementAndGet();
+        try (InputStream in = exchange.getRequestBody()) {
+            JsonNode request = objectMapper.readTree(in);
+            sleep();
+            byte[] body = objectMapper.writeValueAsBytes(completion(content(request)));
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        } catch (RuntimeException e) {
+            exchange.sendResponseHeaders(500, -1);
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void sleep() {
+        long jitterMs = jitter.toMillis();
+        long delay = latency.toMillis()
+                + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0);
+        try {
+            Thread.sleep(delay);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String content(JsonNode request) throws IOException {
+        if (OpenAIService.SUBTASK_MODEL.equals(request.path("model").asText())) {
+            return "[\"準備する\", \"実行する\", \"確認する\"]";
+        }
+
+        String prompt = request.path("messages").path(request.path("messages").size() - 1)
+                .path("content").asText();
+        Matcher matcher = TASK_ID.matcher(prompt);
+        if (!matcher.find()) {
+            return "{\"nextState\": \"EXECUTING\", \"reason\": \"優先度が高いため着手します。\"}";
+        }
+
+        ObjectNode root = objectMapper.createObjectNode();
+        ArrayNode decisions = root.putArray("decisions");
+        do {
+            decisions.addObject().put("taskId", Long.parseLong(matcher.group(1)))
+                    .put("nextState", "EXECUTING").put("reason", "締切が近いため着手します。");
+        } while (matcher.find());
+        return objectMapper.writeValueAsString(root);
+    }
+
+    private ObjectNode completion(String content) {
+        ObjectNode root = objectMapper.createObjectNode().put("id", "chatcmpl-stub")
+                .put("object", "chat.completion");
+        root.putArray("choices").addObject().put("index", 0).put("finish_reason", "stop")
+                .putObject("message").put("role", "assistant").put("content", content);
+        return root;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
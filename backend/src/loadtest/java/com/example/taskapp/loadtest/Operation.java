@@ -0,0 +1,35 @@
+package com.example.taskapp.loadtest;
+
+// 負荷テストで実行する操作（レポートはこの単位で集計）
+public enum Operation {
+    LIST("list", "GET /api/tasks"),
+    CREATE("create", "POST /api/tasks"),
+    STATE("state", "PUT /api/tasks/{id}/state"),
+    SUBTASKS("subtasks", "POST /api/tasks/{id}/subtasks/generate"),
+    DECIDE("decide", "POST /api/tasks/{id}/ai/decision");
+
+    private final String key;
+    private final String endpoint;
+
+    Operation(String key, String endpoint) {
+        this.key = key;
+        this.endpoint = endpoint;
+    }
+
+    public String key() {
+        return key;
+    }
+
+    public String endpoint() {
+        return endpoint;
+    }
+
+    public static Operation fromKey(String key) {
+        for (Operation operation : values()) {
+            if (operation.key.equals(key)) {
+                return operation;
+            }
+        }
+        throw new IllegalArgumentException("unknown operation: " + key);
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.taskapp.cache;
+
+/**
+ * タスクの変更通知（ノード間でやり取りする）。読み取りキャッシュの無効化とライブ更新（TaskEventHub）に使う。
+ * OWNER … 所有者のタスク一覧・ボード / TASK … 上記 + そのタスクのサブタスク一覧 / ALL … すべて
+ * DECISION … AI 判断の追加（キャッシュは持たないのでライブ更新だけ）
+ * ownerKey はユーザーID（ゲストは GUEST）。taskId は不明・複数なら 0。
+ */
+public record CacheInvalidation(Kind kind, long ownerKey, long taskId) {
+
+    public enum Kind {
+        OWNER, TASK, ALL, DECISION
+    }
+
+    // ゲスト用タスクの所有者キー（ユーザーIDは1から払い出すので重ならない）
+    public static final long GUEST = 0L;
+
+    public static long ownerKey(Long userId) {
+        return userId != null ? userId : GUEST;
+    }
+
+    public static Long userId(long ownerKey) {
+        return ownerKey == GUEST ? null : ownerKey;
+    }
+
+    public static CacheInvalidation owner(Long userId) {
+        return new CacheInvalidation(Kind.OWNER, ownerKey(userId), 0L);
+    }
+
+    // 変更したタスクが分かっている場合（キャッシュの扱いは owner(userId) と同じ）
+    public static CacheInvalidation owner(Long userId, Long taskId) {
+        return new CacheInvalidation(Kind.OWNER, ownerKey(userId), taskId != null ? taskId : 0L);
+    }
+
+    public static CacheInvalidation task(Long userId, Long taskId) {
+        return new CacheInvalidation(Kind.TASK, ownerKey(userId), taskId);
+    }
+
+    public static CacheInvalidation all() {
+        return new CacheInvalidation(Kind.ALL, 0L, 0L);
+    }
+
+    public static CacheInvalidation decision(Long userId, Long taskId) {
+        return new CacheInvalidation(Kind.DECISION, ownerKey(userId), taskId != null ? taskId : 0L);
+    }
+
+    // ノード間の転送用（"TASK:12:345" の形）
+    public String encode() {
+        return kind + ":" + ownerKey + ":" + taskId;
+    }
+
+    public static CacheInvalidation decode(String value) {
+        String[] parts = value.split(":");
+        if (parts.length != 3) {
+            throw new IllegalArgumentException("Invalid cache invalidation: " + value);
+        }
+        return new CacheInvalidation(Kind.valueOf(parts[0]), Long.parseLong(parts[1]),
+                Long.parseLong(parts[2]));
+    }
+}
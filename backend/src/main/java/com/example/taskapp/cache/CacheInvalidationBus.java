@@ -0,0 +1,15 @@
+package com.example.taskapp.cache;
+
+import java.util.function.Consumer;
+
+/**
+ * キャッシュ無効化の配信。複数ノードで動かすときは他ノードにも伝える実装を使う
+ * （app.task-cache.invalidation.bus=local / postgres、CacheInvalidationConfig で切り替え）。
+ */
+public interface CacheInvalidationBus {
+
+    // 自ノードのリスナーには呼び出し元のスレッドで即座に届け、他ノードには非同期に伝える
+    void publish(CacheInvalidation invalidation);
+
+    void subscribe(Consumer<CacheInvalidation> listener);
+}
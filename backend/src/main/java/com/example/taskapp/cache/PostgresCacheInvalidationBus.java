@@ -0,0 +1,138 @@
+package com.example.taskapp.cache;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * PostgreSQL の LISTEN / NOTIFY でノード間に無効化を伝える（追加のミドルウェア不要）。
+ * 送信は接続プールから pg_notify を1回実行するだけ。受信は専用接続（プール外）を持つスレッドで行う。
+ * 受信接続が切れている間の通知は失われるので、再接続したときは自ノードのキャッシュをすべて捨てる。
+ * 自ノードが送った通知は送信時に処理済みなので、ノードIDで見分けて読み飛ばす。
+ */
+public class PostgresCacheInvalidationBus implements CacheInvalidationBus {
+
+    private static final Logger log = LoggerFactory.getLogger(PostgresCacheInvalidationBus.class);
+
+    static final String CHANNEL = "task_cache_invalidation";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String url;
+    private final String username;
+    private final String password;
+    private final Duration pollInterval;
+    private final Duration reconnectDelay;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    private final Thread receiver;
+    private volatile boolean running = true;
+
+    public PostgresCacheInvalidationBus(JdbcTemplate jdbcTemplate, String url, String username,
+            String password, Duration pollInterval, Duration reconnectDelay) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.pollInterval = pollInterval;
+        this.reconnectDelay = reconnectDelay;
+
+        this.receiver = new Thread(this::runLoop, "cache-invalidation-listener");
+        this.receiver.setDaemon(true);
+        this.receiver.start();
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        deliver(invalidation);
+        try {
+            jdbcTemplate.query("SELECT pg_notify(?, ?)", rs -> null, CHANNEL,
+                    nodeId + "|" + invalidation.encode());
+        } catch (DataAccessException e) {
+            // 他ノードは TTL が切れるまで古い値を返しうるが、書き込み自体は成功しているので失敗にしない
+            log.warn("Failed to notify cache invalidation {}: {}", invalidation, e.getMessage());
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+
+    private void runLoop() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement st = connection.createStatement()) {
+                    st.execute("LISTEN " + CHANNEL);
+                }
+                // 未接続の間に届かなかった通知があるかもしれない
+                deliver(CacheInvalidation.all());
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection
+                            .getNotifications((int) pollInterval.toMillis());
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    break;
+                }
+                log.warn("Cache invalidation listener disconnected, retrying in {}: {}",
+                        reconnectDelay, e.getMessage());
+                sleep(reconnectDelay);
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        int separator = payload.indexOf('|');
+        if (separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+        try {
+            deliver(CacheInvalidation.decode(payload.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring malformed cache invalidation: {}", payload);
+        }
+    }
+
+    private void deliver(CacheInvalidation invalidation) {
+        listeners.forEach(listener -> listener.accept(invalidation));
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        receiver.interrupt();
+        receiver.join(pollInterval.toMillis() + 1000);
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.taskapp.client;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import io.github.resilience4j.bulkhead.Bulkhead;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadFullException;
+import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerConfig;
+import io.github.resilience4j.reactor.bulkhead.operator.BulkheadOperator;
+import io.github.resilience4j.reactor.circuitbreaker.operator.CircuitBreakerOperator;
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * OpenAI Chat Completions API の呼び出し窓口。
+ * 専用の接続プールとタイムアウトを持ち、同時実行数（バルクヘッド）と
+ * サーキットブレーカーで上流の遅延・障害がアプリ全体に波及しないようにする。
+ * 失敗はすべて即座に {@link OpenAiUnavailableException} になり、呼び出し側のフォールバックに流れる。
+ */
+public class OpenAiClient {
+
+    private final WebClient webClient;
+    private final String apiKey;
+    private final OpenAiClientProperties properties;
+    private final Bulkhead bulkhead;
+    private final CircuitBreaker circuitBreaker;
+
+    public OpenAiClient(String baseUrl, String apiKey, OpenAiClientProperties properties) {
+        this.apiKey = apiKey;
+        this.properties = properties;
+        this.webClient = WebClient.builder().baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient(properties)))
+                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE).build();
+        this.bulkhead = Bulkhead.of("openai", BulkheadConfig.custom()
+                .maxConcurrentCalls(properties.maxConcurrentCalls()).build());
+        this.circuitBreaker = CircuitBreaker.of("openai", circuitBreakerConfig(properties));
+    }
+
+    public boolean isConfigured() {
+        return apiKey != null && !apiKey.isEmpty();
+    }
+
+    // POST /chat/completions（レスポンスボディの JSON 文字列を返す）
+    public Mono<String> chatCompletions(Object requestBody) {
+        if (!isConfigured()) {
+            return Mono.error(new OpenAiUnavailableException(
+                    "OpenAI API key is not configured. Please set OPENAI_API_KEY environment variable."));
+        }
+
+        return webClient.post().uri("/chat/completions")
+                .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
+                .bodyValue(requestBody).retrieve().bodyToMono(String.class)
+                .timeout(properties.callTimeout())
+                // ブレーカーが内側・バルクヘッドが外側（同時実行数超過は失敗としてカウントしない）
+                .transformDeferred(CircuitBreakerOperator.of(circuitBreaker))
+                .transformDeferred(BulkheadOperator.of(bulkhead))
+                .onErrorMap(e -> !(e instanceof OpenAiUnavailableException),
+                        e -> new OpenAiUnavailableException(describe(e), e));
+    }
+
+    public CircuitBreaker.State circuitState() {
+        return circuitBreaker.getState();
+    }
+
+    private static String describe(Throwable e) {
+        if (e instanceof CallNotPermittedException) {
+            return "OpenAI circuit breaker is open";
+        }
+        if (e instanceof BulkheadFullException) {
+            return "Too many concurrent OpenAI calls";
+        }
+        if (e instanceof TimeoutException) {
+            return "OpenAI call timed out";
+        }
+        return "OpenAI call failed: " + e.getMessage();
+    }
+
+    private static HttpClient httpClient(OpenAiClientProperties properties) {
+        ConnectionProvider pool = ConnectionProvider.builder("openai")
+                .maxConnections(properties.maxConnections())
+                .pendingAcquireTimeout(properties.pendingAcquireTimeout())
+                .build();
+
+        long readTimeoutMs = properties.readTimeout().toMillis();
+        return HttpClient.create(pool)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS,
+                        (int) properties.connectTimeout().toMillis())
+                .responseTimeout(properties.readTimeout())
+                .doOnConnected(conn -> conn.addHandlerLast(
+                        new ReadTimeoutHandler(readTimeoutMs, TimeUnit.MILLISECONDS)));
+    }
+
+    private static CircuitBreakerConfig circuitBreakerConfig(OpenAiClientProperties properties) {
+        OpenAiClientProperties.CircuitBreaker cb = properties.circuitBreaker();
+        return CircuitBreakerConfig.custom()
+                .failureRateThreshold(cb.failureRateThreshold())
+                .slowCallRateThreshold(cb.slowCallRateThreshold())
+                .slowCallDurationThreshold(cb.slowCallThreshold())
+                .slidingWindowSize(cb.slidingWindowSize())
+                .minimumNumberOfCalls(cb.minimumCalls())
+                .waitDurationInOpenState(cb.openDuration())
+                .build();
+    }
+}
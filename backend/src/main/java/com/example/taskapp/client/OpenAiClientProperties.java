@@ -0,0 +1,31 @@
+package com.example.taskapp.client;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * OpenAI クライアントの設定（openai.client.*）。
+ * connect/read/call の3段階タイムアウト、接続プール、同時実行数の上限、サーキットブレーカー。
+ */
+@ConfigurationProperties(prefix = "openai.client")
+public record OpenAiClientProperties(
+        @DefaultValue("2s") Duration connectTimeout,
+        @DefaultValue("20s") Duration readTimeout,
+        @DefaultValue("30s") Duration callTimeout,
+        @DefaultValue("50") int maxConnections,
+        @DefaultValue("2s") Duration pendingAcquireTimeout,
+        @DefaultValue("20") int maxConcurrentCalls,
+        @DefaultValue CircuitBreaker circuitBreaker) {
+
+    public record CircuitBreaker(
+            @DefaultValue("50") float failureRateThreshold,
+            @DefaultValue("10s") Duration slowCallThreshold,
+            // slow-call-threshold を超えた呼び出しの割合（%）がこれ以上なら開く
+            @DefaultValue("50") float slowCallRateThreshold,
+            @DefaultValue("20") int slidingWindowSize,
+            @DefaultValue("10") int minimumCalls,
+            @DefaultValue("30s") Duration openDuration) {
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.taskapp.client;
+
+// OpenAI が利用できない（未設定・タイムアウト・同時実行数超過・ブレーカー作動・エラー応答）
+public class OpenAiUnavailableException extends RuntimeException {
+
+    public OpenAiUnavailableException(String message) {
+        super(message);
+    }
+
+    public OpenAiUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
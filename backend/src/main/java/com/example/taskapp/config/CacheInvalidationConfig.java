@@ -0,0 +1,41 @@
+package com.example.taskapp.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.example.taskapp.cache.CacheInvalidationBus;
+import com.example.taskapp.cache.LocalCacheInvalidationBus;
+import com.example.taskapp.cache.PostgresCacheInvalidationBus;
+
+/**
+ * タスク読み取りキャッシュの無効化をどう配信するか（app.task-cache.invalidation.bus）。
+ * local … 自ノードだけ（テスト・1台構成） / postgres … LISTEN / NOTIFY で全ノードに配信
+ */
+@Configuration
+public class CacheInvalidationConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "app.task-cache.invalidation.bus", havingValue = "local",
+            matchIfMissing = true)
+    public CacheInvalidationBus localCacheInvalidationBus() {
+        return new LocalCacheInvalidationBus();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.task-cache.invalidation.bus", havingValue = "postgres")
+    public CacheInvalidationBus postgresCacheInvalidationBus(JdbcTemplate jdbcTemplate,
+            DataSourceProperties dataSourceProperties,
+            @Value("${app.task-cache.invalidation.poll-interval:500ms}") Duration pollInterval,
+            @Value("${app.task-cache.invalidation.reconnect-delay:5s}") Duration reconnectDelay) {
+        // 受信用の接続は LISTEN したまま保持するので、プールとは別に作る
+        return new PostgresCacheInvalidationBus(jdbcTemplate, dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword(),
+                pollInterval, reconnectDelay);
+    }
+}
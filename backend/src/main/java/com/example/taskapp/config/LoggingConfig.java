@@ -0,0 +1,49 @@
+package com.example.taskapp.config;
+
+import java.time.Duration;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.TaskDecorator;
+
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * ログまわりの設定。
+ * - MDC を @Async / アプリのタスク実行プール / サブタスク生成ジョブへ引き継ぐ TaskDecorator
+ * - DataSource をプロキシして SQL をサンプリングログ（{@link SampledSqlLogger}）
+ * 出力先・形式（JSON / テキスト）・非同期アペンダーは logback-spring.xml。
+ */
+@Configuration
+public class LoggingConfig {
+
+    // TaskExecutionAutoConfiguration が applicationTaskExecutor に自動で適用する
+    @Bean
+    public TaskDecorator mdcTaskDecorator() {
+        return new MdcTaskDecorator();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "app.logging.sql.enabled", havingValue = "true",
+            matchIfMissing = true)
+    public static BeanPostProcessor sqlLoggingDataSourcePostProcessor(
+            @Value("${app.logging.sql.sample-rate:0.01}") double sampleRate,
+            @Value("${app.logging.sql.slow-threshold:200ms}") Duration slowThreshold) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ProxyDataSource)) {
+                    return ProxyDataSourceBuilder.create(beanName, dataSource)
+                            .listener(new SampledSqlLogger(sampleRate, slowThreshold)).build();
+                }
+                return bean;
+            }
+        };
+    }
+}
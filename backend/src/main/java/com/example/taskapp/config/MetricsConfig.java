@@ -0,0 +1,36 @@
+package com.example.taskapp.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.taskapp.security.JwtUtil;
+import com.example.taskapp.security.UserIdCache;
+import com.example.taskapp.service.AiResultCache;
+import com.example.taskapp.service.TaskReadCache;
+
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * アプリ独自のメトリクス登録。
+ * エンドポイント（http.server.requests）とリポジトリメソッド（spring.data.repository.invocations）は
+ * Actuator が自動で計測するので、ここではインプロセスキャッシュのヒット率だけを登録する（cache.gets 等）。
+ */
+@Configuration
+public class MetricsConfig {
+
+    @Bean
+    public MeterBinder cacheMetrics(AiResultCache aiResultCache, UserIdCache userIdCache,
+            JwtUtil jwtUtil, TaskReadCache taskReadCache) {
+        return registry -> {
+            CaffeineCacheMetrics.monitor(registry, aiResultCache.subtaskCache(), "ai.subtasks");
+            CaffeineCacheMetrics.monitor(registry, aiResultCache.decisionCache(), "ai.decisions");
+            CaffeineCacheMetrics.monitor(registry, userIdCache.cache(), "auth.user-ids");
+            CaffeineCacheMetrics.monitor(registry, taskReadCache.taskCache(), "task.lists");
+            CaffeineCacheMetrics.monitor(registry, taskReadCache.boardCache(), "task.boards");
+            CaffeineCacheMetrics.monitor(registry, taskReadCache.subtaskCache(), "task.subtasks");
+            jwtUtil.verifiedTokenCache().ifPresent(
+                    cache -> CaffeineCacheMetrics.monitor(registry, cache, "auth.verified-tokens"));
+        };
+    }
+}
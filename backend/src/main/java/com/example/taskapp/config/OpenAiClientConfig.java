@@ -0,0 +1,22 @@
+package com.example.taskapp.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.taskapp.client.OpenAiClient;
+import com.example.taskapp.client.OpenAiClientProperties;
+
+@Configuration
+@EnableConfigurationProperties(OpenAiClientProperties.class)
+public class OpenAiClientConfig {
+
+    @Bean
+    public OpenAiClient openAiClient(
+            @Value("${openai.api.base-url:https://api.openai.com/v1}") String baseUrl,
+            @Value("${OPENAI_API_KEY:}") String apiKey,
+            OpenAiClientProperties properties) {
+        return new OpenAiClient(baseUrl, apiKey, properties);
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.taskapp.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+/**
+ * 仮想スレッドのピン留め（synchronized 内やネイティブ呼び出し中のブロックでキャリアスレッドを
+ * 手放せない状態）の診断。仮想スレッドモードのときだけ JFR の jdk.VirtualThreadPinned を購読し、
+ * 閾値より長いピン留めをスタックの先頭数フレームつきで出力する。
+ * JVM 全体の一覧が欲しいときは -Djdk.tracePinnedThreads=short も併用する（pom の java21 プロファイル参照）。
+ */
+@Component
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class PinnedThreadMonitor {
+
+    private static final Logger log = LoggerFactory.getLogger(PinnedThreadMonitor.class);
+
+    private static final String EVENT = "jdk.VirtualThreadPinned";
+
+    // 出力するスタックの深さ
+    private static final int STACK_DEPTH = 8;
+
+    private final Duration threshold;
+    private final AtomicLong pinnedCount = new AtomicLong();
+    private RecordingStream stream;
+
+    public PinnedThreadMonitor(
+            @Value("${app.virtual-threads.pinned-threshold:20ms}") Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::report);
+        stream.startAsync();
+    }
+
+    private void report(RecordedEvent event) {
+        pinnedCount.incrementAndGet();
+        String frames = event.getStackTrace() == null ? "(no stack)"
+                : frames(event.getStackTrace().getFrames());
+        log.warn("Virtual thread pinned for {}ms: {}", event.getDuration().toMillis(), frames);
+    }
+
+    private static String frames(List<RecordedFrame> frames) {
+        return frames.stream().limit(STACK_DEPTH)
+                .map(frame -> frame.getMethod().getType().getName() + "."
+                        + frame.getMethod().getName() + ":" + frame.getLineNumber())
+                .collect(Collectors.joining(" <- "));
+    }
+
+    // 起動してから検出したピン留めの回数
+    public long pinnedCount() {
+        return pinnedCount.get();
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.taskapp.config;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Pattern;
+
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * リクエストごとの相関ID。
+ * X-Request-Id ヘッダが妥当な形式ならそれを引き継ぎ、なければ生成する。
+ * MDC の requestId に入れてそのリクエスト中のログすべてに付け、レスポンスヘッダでも返す。
+ * セキュリティフィルタより前に動かす（認証まわりのログにも ID が付くように）。
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestIdFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Request-Id";
+    public static final String MDC_KEY = "requestId";
+
+    // ログに混ぜても安全な文字だけ受け付ける（改行などによるログ汚染を防ぐ）
+    private static final Pattern VALID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+        String requestId = request.getHeader(HEADER);
+        if (requestId == null || !VALID.matcher(requestId).matches()) {
+            requestId = newId();
+        }
+
+        MDC.put(MDC_KEY, requestId);
+        response.setHeader(HEADER, requestId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // 一番外側のフィルタなので、下流で積まれた userId なども含めて片付ける
+            MDC.clear();
+        }
+    }
+
+    // UUID.randomUUID() は SecureRandom を使うので、リクエストごとには安い乱数で十分
+    private static String newId() {
+        return Long.toHexString(ThreadLocalRandom.current().nextLong() | Long.MIN_VALUE);
+    }
+}
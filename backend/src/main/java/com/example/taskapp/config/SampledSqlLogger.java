@@ -0,0 +1,59 @@
+package com.example.taskapp.config;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+
+/**
+ * show-sql の代わりの SQL ログ（ロガー com.example.taskapp.sql）。
+ * - slow-threshold 以上かかった SQL は必ず WARN
+ * - それ以外は sample-rate の割合だけ INFO（全件出すとコンソール I/O がボトルネックになるため）
+ * どちらも所要時間・バッチ件数つき。バインド値は個人情報を含みうるので出さない。
+ */
+public class SampledSqlLogger implements QueryExecutionListener {
+
+    private static final Logger log = LoggerFactory.getLogger("com.example.taskapp.sql");
+
+    private final double sampleRate;
+    private final long slowThresholdMs;
+
+    public SampledSqlLogger(double sampleRate, Duration slowThreshold) {
+        this.sampleRate = sampleRate;
+        this.slowThresholdMs = slowThreshold.toMillis();
+    }
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        long elapsedMs = execInfo.getElapsedTime();
+        if (elapsedMs >= slowThresholdMs) {
+            if (log.isWarnEnabled()) {
+                log.atWarn().setMessage("slow sql {}").addArgument(() -> sql(queryInfoList))
+                        .addKeyValue("elapsedMs", elapsedMs)
+                        .addKeyValue("batchSize", execInfo.getBatchSize())
+                        .addKeyValue("success", execInfo.isSuccess()).log();
+            }
+        } else if (log.isInfoEnabled() && sampleRate > 0
+                && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+            log.atInfo().setMessage("sql {}").addArgument(() -> sql(queryInfoList))
+                    .addKeyValue("elapsedMs", elapsedMs)
+                    .addKeyValue("batchSize", execInfo.getBatchSize())
+                    .addKeyValue("success", execInfo.isSuccess()).log();
+        }
+    }
+
+    private static String sql(List<QueryInfo> queryInfoList) {
+        return queryInfoList.stream().map(QueryInfo::getQuery).collect(Collectors.joining("; "));
+    }
+}
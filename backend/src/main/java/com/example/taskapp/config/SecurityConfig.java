@@ -13,6 +13,8 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.http.HttpMethod;
 
+import jakarta.servlet.DispatcherType;
+
 import java.util.List;
 
 @Configuration
@@ -40,6 +42,9 @@ public class SecurityConfig {
         })).sessionManagement(sm -> sm.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
 
+                        // SSE（ライブ更新）の非同期ディスパッチ。認証は最初のリクエストで済んでいる
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
                         // public API
                         .requestMatchers("/api/tasks/public/**").permitAll()
 
@@ -4,21 +4,76 @@ import java.util.List;
 
 import org.springframework.web.bind.annotation.*;
 
+import com.example.taskapp.dto.PageResponse;
 import com.example.taskapp.entity.AiDecisionLog;
+import com.example.taskapp.entity.User;
+import com.example.taskapp.exception.ApiException;
+import com.example.taskapp.security.CurrentUserProvider;
 import com.example.taskapp.service.AiDecisionLogService;
+import com.example.taskapp.service.TaskService;
 
 @RestController
-@RequestMapping("/api/tasks/{taskId}/ai/logs")
+@RequestMapping("/api/tasks")
 public class AiDecisionLogController {
 
+    // latest に一度に渡せるタスク数の上限
+    private static final int MAX_LATEST_TASK_IDS = 500;
+
     private final AiDecisionLogService service;
+    private final TaskService taskService;
+    private final CurrentUserProvider currentUserProvider;
 
-    public AiDecisionLogController(AiDecisionLogService service) {
+    public AiDecisionLogController(AiDecisionLogService service, TaskService taskService,
+            CurrentUserProvider currentUserProvider) {
         this.service = service;
+        this.taskService = taskService;
+        this.currentUserProvider = currentUserProvider;
     }
 
-    @GetMapping
+    @GetMapping("/{taskId}/ai/logs")
     public List<AiDecisionLog> getLogs(@PathVariable Long taskId) {
         return service.getLogsByTaskId(taskId);
     }
+
+    // 履歴のページング（自分のタスクのみ）
+    @GetMapping("/{taskId}/ai/logs/page")
+    public PageResponse<AiDecisionLog> getLogPage(@PathVariable Long taskId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        requireTask(taskId, currentUserProvider.getCurrentUser());
+        return service.getLogPage(taskId, cursor, limit);
+    }
+
+    @GetMapping("/public/{taskId}/ai/logs/page")
+    public PageResponse<AiDecisionLog> getPublicLogPage(@PathVariable Long taskId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        requireTask(taskId, null);
+        return service.getLogPage(taskId, cursor, limit);
+    }
+
+    // タスクごとの最新判断（ボード表示用。taskIds 未指定なら全タスク）
+    @GetMapping("/ai/logs/latest")
+    public List<AiDecisionLog> getLatest(@RequestParam(required = false) List<Long> taskIds) {
+        checkTaskIds(taskIds);
+        return service.getLatestByTask(currentUserProvider.getCurrentUser(), taskIds);
+    }
+
+    @GetMapping("/public/ai/logs/latest")
+    public List<AiDecisionLog> getPublicLatest(
+            @RequestParam(required = false) List<Long> taskIds) {
+        checkTaskIds(taskIds);
+        return service.getLatestByTask(null, taskIds);
+    }
+
+    // 所有者の確認だけなのでキャッシュ済みの一覧で見る（無ければ 404）
+    private void requireTask(Long taskId, User user) {
+        taskService.findAccessible(user, taskId);
+    }
+
+    private void checkTaskIds(List<Long> taskIds) {
+        if (taskIds != null && taskIds.size() > MAX_LATEST_TASK_IDS) {
+            throw ApiException.badRequest("TOO_MANY_TASK_IDS");
+        }
+    }
 }
@@ -3,7 +3,7 @@ package com.example.taskapp.controller;
 import com.example.taskapp.dto.LoginRequest;
 import com.example.taskapp.dto.LoginResponse;
 import com.example.taskapp.dto.RegisterRequest;
-import com.example.taskapp.entity.User;
+import com.example.taskapp.dto.UserResponse;
 import com.example.taskapp.security.JwtUtil;
 import com.example.taskapp.service.AuthService;
 import org.springframework.web.bind.annotation.*;
@@ -35,7 +35,7 @@ public class AuthController {
 
     // ログイン中のユーザー情報
     @GetMapping("/me")
-    public User me(@RequestHeader("Authorization") String authHeader) {
+    public UserResponse me(@RequestHeader("Authorization") String authHeader) {
         String token = authHeader.substring(7);
         String email = jwtUtil.extractEmail(token);
         return authService.getCurrentUser(email);
@@ -1,128 +1,121 @@
 package com.example.taskapp.controller;
 
 import com.example.taskapp.dto.GenerateSubtasksRequest;
+import com.example.taskapp.dto.SubtaskJobResponse;
 import com.example.taskapp.dto.SubtaskResponse;
 import com.example.taskapp.entity.Subtask;
 import com.example.taskapp.entity.Task;
 import com.example.taskapp.entity.User;
+import com.example.taskapp.exception.ApiException;
 import com.example.taskapp.repository.SubtaskRepository;
 import com.example.taskapp.repository.TaskRepository;
-import com.example.taskapp.repository.UserRepository;
-import com.example.taskapp.service.OpenAIService;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import com.example.taskapp.service.SubtaskGenerationJob;
+import com.example.taskapp.service.SubtaskGenerationJobService;
+import com.example.taskapp.service.SubtaskService;
+import com.example.taskapp.service.TaskService;
+import com.example.taskapp.security.CurrentUserProvider;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/tasks")
 @CrossOrigin(origins = "*")
 public class SubtaskController {
 
-    private final OpenAIService openAIService;
+    // SSE 接続の最大維持時間（AI 呼び出しのタイムアウトより長く）
+    private static final long JOB_EVENTS_TIMEOUT_MS = 60_000;
+
+    private final SubtaskService subtaskService;
+    private final SubtaskGenerationJobService subtaskGenerationJobService;
     private final SubtaskRepository subtaskRepository;
     private final TaskRepository taskRepository;
-    private final UserRepository userRepository;
+    private final TaskService taskService;
+    private final CurrentUserProvider currentUserProvider;
 
-    public SubtaskController(OpenAIService openAIService,
+    public SubtaskController(SubtaskService subtaskService,
+                            SubtaskGenerationJobService subtaskGenerationJobService,
                             SubtaskRepository subtaskRepository,
                             TaskRepository taskRepository,
-                            UserRepository userRepository) {
-        this.openAIService = openAIService;
+                            TaskService taskService,
+                            CurrentUserProvider currentUserProvider) {
+        this.subtaskService = subtaskService;
+        this.subtaskGenerationJobService = subtaskGenerationJobService;
         this.subtaskRepository = subtaskRepository;
         this.taskRepository = taskRepository;
-        this.userRepository = userRepository;
+        this.taskService = taskService;
+        this.currentUserProvider = currentUserProvider;
     }
 
     @PostMapping("/{taskId}/subtasks/generate")
     public List<SubtaskResponse> generateSubtasks(
             @PathVariable Long taskId,
             @RequestBody GenerateSubtasksRequest request) {
-        
+        // ログイン状態に関わらずタスクを取得（OpenAI の失敗は SubtaskService 側でフォールバック）
+        Task task = findAccessibleTask(taskId);
+        return subtaskService.generateAndSave(task, request);
+    }
+
+    // ==========================================
+    // 非同期ジョブ版：すぐにジョブIDを返し、結果はポーリング or SSE で受け取る
+    // ==========================================
+
+    @PostMapping("/{taskId}/subtasks/generate/jobs")
+    public ResponseEntity<SubtaskJobResponse> startGenerateSubtasksJob(
+            @PathVariable Long taskId,
+            @RequestBody GenerateSubtasksRequest request) {
+        Task task = findAccessibleTask(taskId);
+        SubtaskGenerationJob job = subtaskGenerationJobService.submit(task, request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(job.toResponse());
+    }
+
+    @GetMapping("/{taskId}/subtasks/generate/jobs/{jobId}")
+    public SubtaskJobResponse getGenerateSubtasksJob(
+            @PathVariable Long taskId,
+            @PathVariable String jobId) {
+        return findJob(taskId, jobId).toResponse();
+    }
+
+    @GetMapping(value = "/{taskId}/subtasks/generate/jobs/{jobId}/events",
+            produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamGenerateSubtasksJob(
+            @PathVariable Long taskId,
+            @PathVariable String jobId) {
+        SubtaskGenerationJob job = findJob(taskId, jobId);
+        SseEmitter emitter = new SseEmitter(JOB_EVENTS_TIMEOUT_MS);
+
+        // 現在の状態を送り、完了したら結果を送って閉じる
         try {
-            // ログイン状態に関わらずタスクを取得
-            User user = getCurrentUserOrNull();
-            Task task = user != null
-                    ? taskRepository.findByIdAndUser(taskId, user)
-                            .orElseThrow(() -> new RuntimeException("Task not found or no permission"))
-                    : taskRepository.findByIdAndUser(taskId, null)
-                            .orElseThrow(() -> new RuntimeException("Task not found"));
-
-            // OpenAI APIでサブタスクを生成
-            List<String> subtaskTitles;
+            emitter.send(SseEmitter.event().name("status").data(job.toResponse()));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            return emitter;
+        }
+        emitter.onTimeout(emitter::complete);
+        job.result().whenComplete((subtasks, error) -> {
             try {
-                subtaskTitles = openAIService.generateSubtasks(
-                        request.getTaskTitle() != null ? request.getTaskTitle() : task.getTitle(),
-                        request.getTaskDescription() != null ? request.getTaskDescription() : task.getDescription()
-                );
-            } catch (RuntimeException e) {
-                // OpenAI APIエラーの場合、デフォルトのサブタスクを生成
-                String taskTitle = request.getTaskTitle() != null ? request.getTaskTitle() : task.getTitle();
-                subtaskTitles = List.of(
-                    taskTitle + "の準備",
-                    taskTitle + "の実行",
-                    taskTitle + "の確認"
-                );
-                // エラーログを出力（本番環境ではログシステムを使用）
-                System.err.println("OpenAI API Error: " + e.getMessage());
-                e.printStackTrace();
+                emitter.send(SseEmitter.event().name("result").data(job.toResponse()));
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            } catch (IllegalStateException e) {
+                // タイムアウト・切断で既に閉じている（結果はポーリングで取れる）
             }
-
-            // 既存のサブタスクを削除（オプション：既存を保持したい場合は削除しない）
-            // subtaskRepository.deleteByTask(task);
-
-            // サブタスクを保存
-            List<Subtask> subtasks = subtaskTitles.stream()
-                    .map(title -> {
-                        Subtask subtask = new Subtask();
-                        subtask.setTitle(title);
-                        subtask.setCompleted(false);
-                        subtask.setTask(task);
-                        return subtaskRepository.save(subtask);
-                    })
-                    .collect(Collectors.toList());
-
-            // レスポンスに変換
-            return subtasks.stream()
-                    .map(st -> {
-                        SubtaskResponse response = new SubtaskResponse();
-                        response.setId(st.getId());
-                        response.setTitle(st.getTitle());
-                        response.setCompleted(st.isCompleted());
-                        response.setTaskId(st.getTask().getId());
-                        return response;
-                    })
-                    .collect(Collectors.toList());
-        } catch (Exception e) {
-            // エラーの詳細をログに出力
-            System.err.println("Error in generateSubtasks: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("サブタスクの生成に失敗しました: " + e.getMessage(), e);
-        }
+        });
+        return emitter;
     }
 
     @GetMapping("/{taskId}/subtasks")
     public List<SubtaskResponse> getSubtasks(@PathVariable Long taskId) {
-        // ログイン状態に関わらずタスクを取得
-        User user = getCurrentUserOrNull();
-        Task task = user != null
-                ? taskRepository.findByIdAndUser(taskId, user)
-                        .orElseThrow(() -> new RuntimeException("Task not found or no permission"))
-                : taskRepository.findByIdAndUser(taskId, null)
-                        .orElseThrow(() -> new RuntimeException("Task not found"));
-
-        return subtaskRepository.findByTask(task).stream()
-                .map(st -> {
-                    SubtaskResponse response = new SubtaskResponse();
-                    response.setId(st.getId());
-                    response.setTitle(st.getTitle());
-                    response.setCompleted(st.isCompleted());
-                    response.setTaskId(st.getTask().getId());
-                    return response;
-                })
-                .collect(Collectors.toList());
+        // ログイン状態に関わらず所有者を確認（確認も一覧もキャッシュから読む）
+        taskService.findAccessible(getCurrentUserOrNull(), taskId);
+
+        return subtaskService.findByTaskId(taskId);
     }
 
     @PutMapping("/{taskId}/subtasks/{subtaskId}")
@@ -130,75 +123,47 @@ public class SubtaskController {
             @PathVariable Long taskId,
             @PathVariable Long subtaskId,
             @RequestBody SubtaskResponse request) {
-        
-        // ログイン状態に関わらずタスクを取得
         User user = getCurrentUserOrNull();
-        Task task = user != null
-                ? taskRepository.findByIdAndUser(taskId, user)
-                        .orElseThrow(() -> new RuntimeException("Task not found or no permission"))
-                : taskRepository.findByIdAndUser(taskId, null)
-                        .orElseThrow(() -> new RuntimeException("Task not found"));
-
-        Subtask subtask = subtaskRepository.findById(subtaskId)
-                .orElseThrow(() -> new RuntimeException("Subtask not found"));
-
-        if (!subtask.getTask().getId().equals(task.getId())) {
-            throw new RuntimeException("Subtask does not belong to this task");
-        }
+        // ログイン状態に関わらず所有者を確認（タスク本体は読まない）
+        taskService.findAccessible(user, taskId);
 
-        subtask.setTitle(request.getTitle());
-        subtask.setCompleted(request.isCompleted());
-        subtaskRepository.save(subtask);
+        Subtask subtask = findSubtask(taskId, subtaskId);
 
-        SubtaskResponse response = new SubtaskResponse();
-        response.setId(subtask.getId());
-        response.setTitle(subtask.getTitle());
-        response.setCompleted(subtask.isCompleted());
-        response.setTaskId(subtask.getTask().getId());
-        return response;
+        return subtaskService.update(subtask, request.getTitle(), request.isCompleted(), user);
     }
 
     @DeleteMapping("/{taskId}/subtasks/{subtaskId}")
     public void deleteSubtask(@PathVariable Long taskId, @PathVariable Long subtaskId) {
-        // ログイン状態に関わらずタスクを取得
         User user = getCurrentUserOrNull();
-        Task task = user != null
-                ? taskRepository.findByIdAndUser(taskId, user)
-                        .orElseThrow(() -> new RuntimeException("Task not found or no permission"))
-                : taskRepository.findByIdAndUser(taskId, null)
-                        .orElseThrow(() -> new RuntimeException("Task not found"));
-
-        Subtask subtask = subtaskRepository.findById(subtaskId)
-                .orElseThrow(() -> new RuntimeException("Subtask not found"));
+        // ログイン状態に関わらず所有者を確認（タスク本体は読まない）
+        taskService.findAccessible(user, taskId);
 
-        if (!subtask.getTask().getId().equals(task.getId())) {
-            throw new RuntimeException("Subtask does not belong to this task");
-        }
+        Subtask subtask = findSubtask(taskId, subtaskId);
 
-        subtaskRepository.delete(subtask);
+        subtaskService.delete(subtask, user);
     }
 
-    private User getCurrentUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+    private Task findAccessibleTask(Long taskId) {
+        User user = getCurrentUserOrNull();
+        return taskRepository.findByIdAndUser(taskId, user)
+                .orElseThrow(() -> ApiException.notFound("TASK_NOT_FOUND"));
+    }
 
-        if (auth == null || !auth.isAuthenticated()) {
-            throw new RuntimeException("Unauthenticated");
-        }
+    // 別のタスクのサブタスク ID を指定された場合も存在しない扱い
+    private Subtask findSubtask(Long taskId, Long subtaskId) {
+        return subtaskRepository.findById(subtaskId)
+                .filter(subtask -> subtask.getTask().getId().equals(taskId))
+                .orElseThrow(() -> ApiException.notFound("SUBTASK_NOT_FOUND"));
+    }
 
-        String email = auth.getName();
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    private SubtaskGenerationJob findJob(Long taskId, String jobId) {
+        taskService.findAccessible(getCurrentUserOrNull(), taskId);
+        return subtaskGenerationJobService.find(jobId)
+                .filter(job -> job.getTaskId().equals(taskId))
+                .orElseThrow(() -> ApiException.notFound("JOB_NOT_FOUND"));
     }
 
     private User getCurrentUserOrNull() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-
-        if (auth == null || !auth.isAuthenticated()) {
-            return null;
-        }
-
-        String email = auth.getName();
-        return userRepository.findByEmail(email).orElse(null);
+        return currentUserProvider.getCurrentUserOrNull();
     }
 }
-
@@ -1,51 +1,63 @@
 package com.example.taskapp.controller;
 
+import com.example.taskapp.dto.TaskAiDecisionBatchItem;
+import com.example.taskapp.dto.TaskAiDecisionBatchRequest;
 import com.example.taskapp.dto.TaskAiDecisionResponse;
 import com.example.taskapp.entity.Task;
 import com.example.taskapp.entity.User;
-import com.example.taskapp.repository.TaskRepository;
-import com.example.taskapp.repository.UserRepository;
 import com.example.taskapp.service.TaskAiDecisionService;
+import com.example.taskapp.service.TaskService;
 
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import com.example.taskapp.security.CurrentUserProvider;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/tasks")
 @CrossOrigin(origins = "*")
 public class TaskAiDecisionController {
 
-    private final TaskRepository taskRepository;
-    private final UserRepository userRepository;
+    private final TaskService taskService;
+    private final CurrentUserProvider currentUserProvider;
     private final TaskAiDecisionService taskAiDecisionService;
 
-    public TaskAiDecisionController(TaskRepository taskRepository, UserRepository userRepository,
+    public TaskAiDecisionController(TaskService taskService,
+            CurrentUserProvider currentUserProvider,
             TaskAiDecisionService taskAiDecisionService) {
-        this.taskRepository = taskRepository;
-        this.userRepository = userRepository;
+        this.taskService = taskService;
+        this.currentUserProvider = currentUserProvider;
         this.taskAiDecisionService = taskAiDecisionService;
     }
 
     // AI判定
     @PostMapping("/{taskId}/ai/decision")
     public TaskAiDecisionResponse decide(@PathVariable Long taskId) {
-        User user = getCurrentUserOrNull();
-
-        Task task = user != null
-                ? taskRepository.findByIdAndUser(taskId, user)
-                        .orElseThrow(() -> new RuntimeException("Task not found or no permission"))
-                : taskRepository.findByIdAndUser(taskId, null)
-                        .orElseThrow(() -> new RuntimeException("Task not found"));
+        // ログイン中なら自分のタスク、未ログインならゲスト用タスクだけ（判断は読むだけなのでキャッシュから）
+        Task task = taskService.findForDecision(getCurrentUserOrNull(), taskId);
 
         return taskAiDecisionService.decide(task);
     }
 
+    // 一括AI判定（ボード全体 or 指定タスク）
+    @PostMapping("/ai/decisions")
+    public List<TaskAiDecisionBatchItem> decideAll(
+            @RequestBody(required = false) TaskAiDecisionBatchRequest request) {
+        User user = currentUserProvider.getCurrentUser();
+        return taskAiDecisionService.decideAll(findTasks(request, user));
+    }
+
+    @PostMapping("/public/ai/decisions")
+    public List<TaskAiDecisionBatchItem> decideAllPublic(
+            @RequestBody(required = false) TaskAiDecisionBatchRequest request) {
+        return taskAiDecisionService.decideAllPublic(findTasks(request, null));
+    }
+
+    private List<Task> findTasks(TaskAiDecisionBatchRequest request, User user) {
+        return taskService.findForDecision(user, request != null ? request.getTaskIds() : null);
+    }
+
     private User getCurrentUserOrNull() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-        if (auth == null || !auth.isAuthenticated()) {
-            return null;
-        }
-        return userRepository.findByEmail(auth.getName()).orElse(null);
+        return currentUserProvider.getCurrentUserOrNull();
     }
 }
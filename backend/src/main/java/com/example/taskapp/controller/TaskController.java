@@ -1,23 +1,34 @@
 package com.example.taskapp.controller;
 
 import com.example.taskapp.entity.Task;
-import com.example.taskapp.entity.TaskState;
 import com.example.taskapp.entity.User;
-import com.example.taskapp.repository.SubtaskRepository;
 import com.example.taskapp.repository.TaskRepository;
-import com.example.taskapp.repository.UserRepository;
+import com.example.taskapp.security.CurrentUserProvider;
 
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import com.example.taskapp.service.TaskService;
 import com.example.taskapp.dto.UpdateStateRequest;
 import com.example.taskapp.service.TaskAiDecisionService;
+import com.example.taskapp.service.TaskEventHub;
+
+import jakarta.servlet.http.HttpServletResponse;
 
 import java.util.List;
 import com.example.taskapp.dto.CreateTaskRequest;
+import com.example.taskapp.dto.TaskFilter;
+import com.example.taskapp.dto.TaskResponse;
+import com.example.taskapp.dto.PageResponse;
+import com.example.taskapp.dto.TaskBoardItem;
+import com.example.taskapp.dto.TaskChanges;
+import com.example.taskapp.dto.TaskSort;
+import com.example.taskapp.dto.Versioned;
 import com.example.taskapp.entity.AiDecisionLog;
-import com.example.taskapp.entity.Subtask;
+import com.example.taskapp.exception.ApiException;
 
 @RestController
 @RequestMapping("/api/tasks")
@@ -25,82 +36,88 @@ import com.example.taskapp.entity.Subtask;
 public class TaskController {
 
     private final TaskRepository taskRepository;
-    private final UserRepository userRepository;
-    private final SubtaskRepository subtaskRepository;
+    private final CurrentUserProvider currentUserProvider;
     private final TaskService taskService;
     private final TaskAiDecisionService taskAiDecisionService;
+    private final TaskEventHub taskEventHub;
 
-    public TaskController(TaskRepository taskRepository, UserRepository userRepository,
-            SubtaskRepository subtaskRepository, TaskService taskService,
-            TaskAiDecisionService taskAiDecisionService) {
+    public TaskController(TaskRepository taskRepository, CurrentUserProvider currentUserProvider,
+            TaskService taskService, TaskAiDecisionService taskAiDecisionService,
+            TaskEventHub taskEventHub) {
         this.taskRepository = taskRepository;
-        this.userRepository = userRepository;
-        this.subtaskRepository = subtaskRepository;
+        this.currentUserProvider = currentUserProvider;
         this.taskService = taskService;
         this.taskAiDecisionService = taskAiDecisionService;
+        this.taskEventHub = taskEventHub;
     }
 
     // ==========================================
     // 🔹 ログイン中ユーザー用 API
     // ==========================================
 
+    // ETag（所有者のバージョン）つき。If-None-Match が一致すれば 304（キャッシュだけで判定し DB は読まない）
     @GetMapping
-    public List<Task> getAllTasks() {
+    public ResponseEntity<List<TaskResponse>> getAllTasks() {
         User user = getCurrentUser();
-        return taskRepository.findByUser(user);
+        return versioned(taskService.findAll(user));
+    }
+
+    // 差分同期：since（前回の version）より後に追加・変更・削除したタスクだけを返す
+    @GetMapping("/changes")
+    public TaskChanges getChanges(@RequestParam(defaultValue = "0") long since) {
+        return taskService.findChanges(getCurrentUser(), since);
+    }
+
+    // ライブ更新（SSE）：変更があったことだけを送るので、受け取ったら /changes で取り直す
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamEvents(HttpServletResponse response) {
+        return subscribe(getCurrentUser().getId(), response);
+    }
+
+    // キーセットページング + サーバー側フィルタ / ソート
+    @GetMapping("/page")
+    public PageResponse<TaskResponse> getTaskPage(TaskFilter filter,
+            @RequestParam(required = false) TaskSort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        User user = getCurrentUser();
+        return taskService.findPage(user, filter, sort, cursor, limit);
+    }
+
+    // ボード表示用：サブタスクの件数・完了数つき（includeSubtasks=true で本体も含める）
+    @GetMapping("/board")
+    public ResponseEntity<List<TaskBoardItem>> getBoard(
+            @RequestParam(defaultValue = "false") boolean includeSubtasks) {
+        return versioned(taskService.getBoard(getCurrentUser(), includeSubtasks));
     }
 
     @PostMapping
-    public Task createTask(@RequestBody CreateTaskRequest request) {
+    public TaskResponse createTask(@RequestBody CreateTaskRequest request) {
         User user = getCurrentUser();
-        return taskService.createTask(request, user);
+        return TaskResponse.from(taskService.createTask(request, user));
     }
 
 
     @PutMapping("/{id}")
-    public Task updateTask(@PathVariable Long id, @RequestBody Task updatedTask) {
+    public TaskResponse updateTask(@PathVariable Long id, @RequestBody Task updatedTask) {
 
         User user = getCurrentUser();
 
         Task task = taskRepository.findByIdAndUser(id, user)
-                .orElseThrow(() -> new RuntimeException("Task not found or no permission"));
-
-        task.setTitle(updatedTask.getTitle());
-        task.setDescription(updatedTask.getDescription());
-        task.setCompleted(updatedTask.isCompleted());
-        task.setDueDate(updatedTask.getDueDate());
-        task.setPriority(updatedTask.getPriority());
+                .orElseThrow(() -> ApiException.notFound("TASK_NOT_FOUND"));
 
-        return taskRepository.save(task);
+        return TaskResponse.from(taskService.updateTask(task, updatedTask));
     }
 
     @DeleteMapping("/{id}")
     public void deleteTask(@PathVariable Long id) {
-        try {
-            User user = getCurrentUser();
-
-            Task task = taskRepository.findByIdAndUser(id, user)
-                    .orElseThrow(() -> new RuntimeException("Task not found or no permission"));
-
-            // サブタスクを先に削除（明示的にリストを取得してから削除）
-            try {
-                List<Subtask> subtasks = subtaskRepository.findByTask(task);
-                if (subtasks != null && !subtasks.isEmpty()) {
-                    subtaskRepository.deleteAll(subtasks);
-                }
-            } catch (Exception e) {
-                // サブタスクが存在しない場合でも続行
-                System.err.println("Warning: Failed to delete subtasks: " + e.getMessage());
-                e.printStackTrace();
-            }
-
-            // その後、タスクを削除
-            taskRepository.delete(task);
-        } catch (Exception e) {
-            System.err.println("Error deleting task: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("タスクの削除に失敗しました: " + e.getMessage(), e);
-        }
+        User user = getCurrentUser();
+
+        Task task = taskRepository.findByIdAndUser(id, user)
+                .orElseThrow(() -> ApiException.notFound("TASK_NOT_FOUND"));
+
+        // サブタスク・AI判断ログ・タスクを一括 DELETE で削除
+        taskService.deleteTask(task);
     }
 
     // ==========================================
@@ -108,69 +125,62 @@ public class TaskController {
     // ==========================================
 
     @GetMapping("/public")
-    public List<Task> getPublicTasks() {
-        return taskRepository.findByUser(null);
+    public ResponseEntity<List<TaskResponse>> getPublicTasks() {
+        return versioned(taskService.findAll(null));
+    }
+
+    @GetMapping("/public/changes")
+    public TaskChanges getPublicChanges(@RequestParam(defaultValue = "0") long since) {
+        return taskService.findChanges(null, since);
+    }
+
+    @GetMapping(path = "/public/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamPublicEvents(HttpServletResponse response) {
+        return subscribe(null, response);
+    }
+
+    @GetMapping("/public/board")
+    public ResponseEntity<List<TaskBoardItem>> getPublicBoard(
+            @RequestParam(defaultValue = "false") boolean includeSubtasks) {
+        return versioned(taskService.getBoard(null, includeSubtasks));
+    }
+
+    @GetMapping("/public/page")
+    public PageResponse<TaskResponse> getPublicTaskPage(TaskFilter filter,
+            @RequestParam(required = false) TaskSort sort,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return taskService.findPage(null, filter, sort, cursor, limit);
     }
 
     @PostMapping("/public")
-    public Task createPublicTask(@RequestBody CreateTaskRequest request) {
-        return taskService.createTask(request, null);
+    public TaskResponse createPublicTask(@RequestBody CreateTaskRequest request) {
+        return TaskResponse.from(taskService.createTask(request, null));
     }
 
     @PutMapping("/public/{id}")
-    public Task updatePublicTask(@PathVariable Long id, @RequestBody Task updatedTask) {
+    public TaskResponse updatePublicTask(@PathVariable Long id, @RequestBody Task updatedTask) {
         Task task = taskRepository.findByIdAndUser(id, null)
-                .orElseThrow(() -> new RuntimeException("Task not found"));
+                .orElseThrow(() -> ApiException.notFound("TASK_NOT_FOUND"));
 
-        task.setTitle(updatedTask.getTitle());
-        task.setDescription(updatedTask.getDescription());
-        task.setCompleted(updatedTask.isCompleted());
-        task.setDueDate(updatedTask.getDueDate());
-        task.setPriority(updatedTask.getPriority());
-
-        return taskRepository.save(task);
+        return TaskResponse.from(taskService.updateTask(task, updatedTask));
     }
 
     @DeleteMapping("/public/{id}")
     public void deletePublicTask(@PathVariable Long id) {
-        try {
-            Task task = taskRepository.findByIdAndUser(id, null)
-                    .orElseThrow(() -> new RuntimeException("Task not found"));
-
-            // サブタスクを先に削除（明示的にリストを取得してから削除）
-            try {
-                List<com.example.taskapp.entity.Subtask> subtasks =
-                        subtaskRepository.findByTask(task);
-                if (subtasks != null && !subtasks.isEmpty()) {
-                    subtaskRepository.deleteAll(subtasks);
-                }
-            } catch (Exception e) {
-                // サブタスクが存在しない場合でも続行
-                System.err.println("Warning: Failed to delete subtasks: " + e.getMessage());
-                e.printStackTrace();
-            }
-
-            // その後、タスクを削除
-            taskRepository.delete(task);
-        } catch (Exception e) {
-            System.err.println("Error deleting task: " + e.getMessage());
-            e.printStackTrace();
-            throw new RuntimeException("タスクの削除に失敗しました: " + e.getMessage(), e);
-        }
+        Task task = taskRepository.findByIdAndUser(id, null)
+                .orElseThrow(() -> ApiException.notFound("TASK_NOT_FOUND"));
+
+        // サブタスク・AI判断ログ・タスクを一括 DELETE で削除
+        taskService.deleteTask(task);
     }
 
     @PutMapping("/public/{id}/state")
-    public Task updatePublicTaskState(@PathVariable Long id, @RequestBody UpdateStateRequest req) {
+    public TaskResponse updatePublicTaskState(@PathVariable Long id, @RequestBody UpdateStateRequest req) {
         Task task = taskRepository.findByIdAndUser(id, null)
-                .orElseThrow(() -> new RuntimeException("Task not found"));
-
-        task.setState(req.getState());
+                .orElseThrow(() -> ApiException.notFound("TASK_NOT_FOUND"));
 
-        if (req.getState() == TaskState.DONE) {
-            task.setCompleted(true);
-        }
-
-        return taskRepository.save(task);
+        return TaskResponse.from(taskService.updateState(task, req.getState()));
     }
 
     @GetMapping("/public/{taskId}/ai/logs")
@@ -182,31 +192,32 @@ public class TaskController {
     // 共通：ログイン中ユーザー取得
     // ==========================================
     private User getCurrentUser() {
-        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
-
-        if (auth == null || !auth.isAuthenticated()) {
-            throw new RuntimeException("Unauthenticated");
-        }
+        return currentUserProvider.getCurrentUser();
+    }
 
-        String email = auth.getName();
+    // nginx などのプロキシにバッファさせない（イベントがまとめて届くのを防ぐ）
+    private SseEmitter subscribe(Long userId, HttpServletResponse response) {
+        response.setHeader("X-Accel-Buffering", "no");
+        return taskEventHub.subscribe(userId);
+    }
 
-        return userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+    // GET で ETag が If-None-Match と一致すれば、Spring が本文を書かずに 304 を返す。
+    // no-cache … 使う前に必ず再検証 / private + Vary … ユーザーごとに別のキャッシュにする
+    private static <T> ResponseEntity<T> versioned(Versioned<T> versioned) {
+        return ResponseEntity.ok()
+                .eTag(versioned.etag())
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .varyBy(HttpHeaders.AUTHORIZATION)
+                .body(versioned.value());
     }
 
     @PutMapping("/{id}/state")
-    public Task updateState(@PathVariable Long id, @RequestBody UpdateStateRequest req) {
+    public TaskResponse updateState(@PathVariable Long id, @RequestBody UpdateStateRequest req) {
         User user = getCurrentUser();
         Task task = taskRepository.findByIdAndUser(id, user)
-                .orElseThrow(() -> new RuntimeException("Task not found or no permission"));
-
-        task.setState(req.getState());
-
-        // 互換：DONEなら completed=true
-        if (req.getState() == TaskState.DONE) {
-            task.setCompleted(true);
-        }
+                .orElseThrow(() -> ApiException.notFound("TASK_NOT_FOUND"));
 
-        return taskRepository.save(task);
+        // 互換：DONEなら completed=true（TaskService.updateState）
+        return TaskResponse.from(taskService.updateState(task, req.getState()));
     }
 }
@@ -0,0 +1,37 @@
+package com.example.taskapp.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import com.example.taskapp.entity.AiDecisionLog;
+import com.example.taskapp.exception.ApiException;
+
+// AI 判断履歴のキーセットページング用カーソル（直前ページ末尾の createdAt + id）
+public record AiDecisionLogCursor(LocalDateTime createdAt, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static AiDecisionLogCursor of(AiDecisionLog log) {
+        return new AiDecisionLogCursor(log.getCreatedAt(), log.getId());
+    }
+
+    public String encode() {
+        String raw = createdAt + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static AiDecisionLogCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("malformed cursor");
+            }
+            return new AiDecisionLogCursor(LocalDateTime.parse(parts[0]), Long.valueOf(parts[1]));
+        } catch (RuntimeException e) {
+            throw ApiException.badRequest("INVALID_CURSOR");
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.taskapp.dto;
+
+import java.util.List;
+
+// キーセットページングのレスポンス（nextCursor が null なら最終ページ）
+public record PageResponse<T>(List<T> items, String nextCursor, boolean hasNext) {}
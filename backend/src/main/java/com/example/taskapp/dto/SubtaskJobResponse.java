@@ -0,0 +1,14 @@
+package com.example.taskapp.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class SubtaskJobResponse {
+    private String jobId;
+    private Long taskId;
+    private String status; // PENDING / RUNNING / SUCCEEDED / FAILED
+    private List<SubtaskResponse> subtasks; // SUCCEEDED のときだけ
+    private String error; // FAILED のときだけ
+}
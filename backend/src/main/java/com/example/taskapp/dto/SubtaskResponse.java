@@ -1,12 +1,26 @@
 package com.example.taskapp.dto;
 
+import com.example.taskapp.entity.Subtask;
+
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor // JPQL のコンストラクタ式（select new ...）用
 public class SubtaskResponse {
     private Long id;
     private String title;
     private boolean completed;
     private Long taskId;
-}
 
+    public static SubtaskResponse from(Subtask subtask) {
+        SubtaskResponse response = new SubtaskResponse();
+        response.setId(subtask.getId());
+        response.setTitle(subtask.getTitle());
+        response.setCompleted(subtask.isCompleted());
+        response.setTaskId(subtask.getTask().getId());
+        return response;
+    }
+}
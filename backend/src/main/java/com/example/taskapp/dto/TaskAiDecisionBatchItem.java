@@ -0,0 +1,13 @@
+package com.example.taskapp.dto;
+
+import com.example.taskapp.entity.TaskState;
+
+import lombok.Data;
+
+@Data
+public class TaskAiDecisionBatchItem {
+    private Long taskId;
+    private TaskState nextState;
+    private String reason;
+    private boolean fallback; // AI の結果が得られずルールベースで判断した場合 true
+}
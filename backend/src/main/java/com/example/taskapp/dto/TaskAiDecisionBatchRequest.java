@@ -0,0 +1,10 @@
+package com.example.taskapp.dto;
+
+import java.util.List;
+
+import lombok.Data;
+
+@Data
+public class TaskAiDecisionBatchRequest {
+    private List<Long> taskIds; // 省略時はボード全体
+}
@@ -0,0 +1,35 @@
+package com.example.taskapp.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import com.example.taskapp.entity.TaskState;
+
+// ボード表示用のタスク（サブタスクの件数・完了数つき）。subtasks は要求時のみ入る
+public record TaskBoardItem(
+        Long id,
+        String title,
+        String description,
+        boolean completed,
+        LocalDateTime createdAt,
+        LocalDate dueDate,
+        String priority,
+        TaskState state,
+        int subtaskTotal,
+        int subtaskCompleted,
+        List<SubtaskResponse> subtasks) {
+
+    // JPQL のコンストラクタ式用
+    public TaskBoardItem(Long id, String title, String description, boolean completed,
+            LocalDateTime createdAt, LocalDate dueDate, String priority, TaskState state,
+            int subtaskTotal, int subtaskCompleted) {
+        this(id, title, description, completed, createdAt, dueDate, priority, state,
+                subtaskTotal, subtaskCompleted, null);
+    }
+
+    public TaskBoardItem withSubtasks(List<SubtaskResponse> subtasks) {
+        return new TaskBoardItem(id, title, description, completed, createdAt, dueDate, priority,
+                state, subtaskTotal, subtaskCompleted, subtasks);
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.taskapp.dto;
+
+import java.util.List;
+
+// 差分同期のレスポンス。次回は version を since に渡す。
+// full=true なら tasks は全件（手元の一覧を置き換える）。false なら tasks は追加・変更分、deleted は削除分
+public record TaskChanges(long version, boolean full, List<TaskResponse> tasks, List<Long> deleted) {}
@@ -0,0 +1,57 @@
+package com.example.taskapp.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import com.example.taskapp.entity.Task;
+import com.example.taskapp.exception.ApiException;
+
+/**
+ * キーセットページングのカーソル。
+ * 直前ページ末尾の「ソートキーの値 + id」を保持し、クライアントには不透明な文字列として渡す。
+ */
+public record TaskCursor(TaskSort sort, Object value, Long id) {
+
+    private static final String SEPARATOR = "|";
+
+    public static TaskCursor of(TaskSort sort, TaskResponse task) {
+        Object value = switch (sort) {
+            case CREATED_AT -> task.createdAt();
+            case DUE_DATE -> task.dueDate();
+            case PRIORITY -> Task.rankOf(task.priority());
+        };
+        return new TaskCursor(sort, value, task.id());
+    }
+
+    public String encode() {
+        String raw = sort.name() + SEPARATOR + (value == null ? "" : value.toString()) + SEPARATOR
+                + id;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // 別のソート条件で発行されたカーソルは受け付けない
+    public static TaskCursor decode(String cursor, TaskSort expectedSort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", -1);
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("malformed cursor");
+            }
+            TaskSort sort = TaskSort.valueOf(parts[0]);
+            if (sort != expectedSort) {
+                throw new IllegalArgumentException("cursor sort mismatch");
+            }
+            Object value = parts[1].isEmpty() ? null : switch (sort) {
+                case CREATED_AT -> LocalDateTime.parse(parts[1]);
+                case DUE_DATE -> LocalDate.parse(parts[1]);
+                case PRIORITY -> Integer.valueOf(parts[1]);
+            };
+            return new TaskCursor(sort, value, Long.valueOf(parts[2]));
+        } catch (RuntimeException e) {
+            throw ApiException.badRequest("INVALID_CURSOR");
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.taskapp.dto;
+
+// ライブ更新（SSE）で送るイベント。中身は「何が変わったか」だけで、データ本体は差分同期（?since=）で取り直す。
+// type … task（タスク・サブタスクの追加・更新・削除）/ resync（取りこぼしの可能性。全件を取り直す）
+//         / ai-decision（AI 判断ログの追加）/ ready（接続直後）
+// taskId … 対象タスク（不明・複数なら null）
+public record TaskEvent(String type, Long taskId) {
+
+    public static final String TASK = "task";
+    public static final String RESYNC = "resync";
+    public static final String AI_DECISION = "ai-decision";
+    public static final String READY = "ready";
+}
@@ -0,0 +1,21 @@
+package com.example.taskapp.dto;
+
+import java.time.LocalDate;
+
+import org.springframework.format.annotation.DateTimeFormat;
+
+import com.example.taskapp.entity.TaskState;
+
+import lombok.Data;
+
+// タスク一覧の絞り込み条件（null の項目は条件なし）
+@Data
+public class TaskFilter {
+    private TaskState state;
+    private Boolean completed;
+    private String priority;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dueFrom;
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate dueTo;
+}
@@ -0,0 +1,35 @@
+package com.example.taskapp.dto;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import com.example.taskapp.entity.Task;
+import com.example.taskapp.entity.TaskState;
+
+// タスクのレスポンス。エンティティを直接返さず、必要な列だけを持つ（遅延ロードを起こさない）
+public record TaskResponse(
+        Long id,
+        String title,
+        String description,
+        boolean completed,
+        LocalDateTime createdAt,
+        LocalDateTime updatedAt,
+        LocalDate dueDate,
+        String priority,
+        TaskState state,
+        int subtaskTotal,
+        int subtaskCompleted) {
+
+    // JPQL のコンストラクタ式で使う select 句（from Task t を前提）
+    public static final String JPQL_SELECT = "select new com.example.taskapp.dto.TaskResponse("
+            + "t.id, t.title, t.description, t.completed, t.createdAt, t.updatedAt, t.dueDate,"
+            + " t.priority, t.state, t.subtaskTotal, t.subtaskCompleted)";
+
+    // 更新系（エンティティを保存した直後）用
+    public static TaskResponse from(Task task) {
+        return new TaskResponse(task.getId(), task.getTitle(), task.getDescription(),
+                task.isCompleted(), task.getCreatedAt(), task.getUpdatedAt(), task.getDueDate(),
+                task.getPriority(), task.getState(), task.getSubtaskTotal(),
+                task.getSubtaskCompleted());
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.taskapp.dto;
+
+// タスク一覧のソート種別（同値は id で順序を確定させる）
+public enum TaskSort {
+    CREATED_AT("createdAt", false), // 新しい順
+    DUE_DATE("dueDate", true),      // 締切が近い順（締切なしは末尾）
+    PRIORITY("priorityRank", true); // 優先度が高い順（未設定は末尾）
+
+    private final String property;
+    private final boolean ascending;
+
+    TaskSort(String property, boolean ascending) {
+        this.property = property;
+        this.ascending = ascending;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+}
@@ -0,0 +1,6 @@
+package com.example.taskapp.dto;
+
+import java.time.LocalDateTime;
+
+// ログイン中ユーザーの情報（パスワードハッシュは含めない）
+public record UserResponse(Long id, String email, LocalDateTime createdAt) {}
@@ -0,0 +1,11 @@
+package com.example.taskapp.dto;
+
+// 所有者（ユーザーID / ゲストは 0）のタスク集合のバージョンつきの値。
+// version は値を読む前に読んだものなので、値の方が新しいことはあっても古いことはない
+public record Versioned<T>(long ownerKey, long version, T value) {
+
+    // 強い ETag（同じ URL をユーザーを切り替えて使っても一致しないよう所有者を含める）
+    public String etag() {
+        return "\"" + ownerKey + "." + version + "\"";
+    }
+}
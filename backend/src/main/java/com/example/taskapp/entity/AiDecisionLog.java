@@ -9,15 +9,24 @@ import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 
 
 @Entity
-@Table(name = "ai_decision_logs")
+@Table(name = "ai_decision_logs", indexes = {
+        // タスクごとの履歴（新しい順）と、期限切れログの削除用
+        @Index(name = "idx_ai_decision_logs_task_created", columnList = "task_id, created_at desc, id desc"),
+        @Index(name = "idx_ai_decision_logs_created", columnList = "created_at")
+})
 public class AiDecisionLog {
 
+    // IDENTITY だと JDBC バッチ INSERT にならないため、50件単位で払い出すシーケンスを使う
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ai_decision_logs_seq")
+    @SequenceGenerator(name = "ai_decision_logs_seq", sequenceName = "ai_decision_logs_seq",
+            allocationSize = 50)
     private Long id;
 
     private Long taskId;
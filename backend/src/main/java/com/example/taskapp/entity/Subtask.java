@@ -5,10 +5,15 @@ import lombok.Data;
 
 @Data
 @Entity
-@Table(name = "subtasks")
+@Table(name = "subtasks", indexes = {
+        // タスクごとの取得 / 一括削除 / カウンタ修復の COUNT 用
+        @Index(name = "idx_subtasks_task", columnList = "task_id, id")
+})
 public class Subtask {
+    // IDENTITY だと JDBC バッチ INSERT にならないため、50件単位で払い出すシーケンスを使う
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "subtasks_seq")
+    @SequenceGenerator(name = "subtasks_seq", sequenceName = "subtasks_seq", allocationSize = 50)
     private Long id;
 
     private String title;
@@ -1,33 +1,92 @@
 package com.example.taskapp.entity;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+import org.hibernate.annotations.ColumnDefault;
 import lombok.Data;
 import java.time.LocalDateTime;
 import java.time.LocalDate;
 
 @Data
 @Entity
-@Table(name = "tasks")
+@Table(name = "tasks", indexes = {
+        // 一覧のキーセットページング用（user_id + ソートキー + id）。
+        // 本番の定義は db/migration（NULLS の位置・ゲスト用の部分インデックスを含む）
+        @Index(name = "idx_tasks_user_created", columnList = "user_id, created_at desc, id desc"),
+        @Index(name = "idx_tasks_user_due", columnList = "user_id, due_date, id"),
+        @Index(name = "idx_tasks_user_priority", columnList = "user_id, priority_rank, id"),
+        @Index(name = "idx_tasks_user_state", columnList = "user_id, state"),
+        // 差分同期（?since=）用
+        @Index(name = "idx_tasks_user_change", columnList = "user_id, change_version")
+})
 public class Task {
+    // IDENTITY だと JDBC バッチ INSERT にならないため、50件単位で払い出すシーケンスを使う
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tasks_seq")
+    @SequenceGenerator(name = "tasks_seq", sequenceName = "tasks_seq", allocationSize = 50)
     private Long id;
 
     private String title; // タスク名
     private String description; // 詳細
     private boolean completed; // 完了フラグ
     private LocalDateTime createdAt; // 作成日時
+    private LocalDateTime updatedAt; // 最終更新日時（サブタスクの変更を含む）
+
+    // 最後に変更したときの所有者のバージョン（TaskSetVersion）。差分同期で「since より後に変わったか」を見る
+    @JsonIgnore
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private long changeVersion;
 
     private LocalDate dueDate; // 締切日
     private String priority; // 優先度（low, medium, high）
 
+    // 優先度ソート用の数値（high=0, medium=1, low=2）。priority から自動算出
+    @JsonIgnore
+    private Integer priorityRank;
+
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private TaskState state;
     // ★ここを追加！（pending / executing / done）
 
+    // サブタスクの件数 / 完了数（非正規化カウンタ）。
+    // 更新は TaskRepository.adjustSubtaskCounters の相対 UPDATE だけで行い、
+    // エンティティの保存で古い値を上書きしないよう insert / update の対象から外す
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private int subtaskTotal;
+
+    @ColumnDefault("0")
+    @Column(nullable = false, insertable = false, updatable = false)
+    private int subtaskCompleted;
+
     // 🔥 ユーザーと紐づける（ここが重要！）
+    // レスポンスには含めない（遅延ロードのプロキシ・パスワードハッシュを出さない）
+    @JsonIgnore
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id")
     private User user;
+
+    @PrePersist
+    @PreUpdate
+    void syncPriorityRank() {
+        this.priorityRank = rankOf(priority);
+    }
+
+    public static Integer rankOf(String priority) {
+        if (priority == null) {
+            return null;
+        }
+        switch (priority) {
+            case "high":
+                return 0;
+            case "medium":
+                return 1;
+            case "low":
+                return 2;
+            default:
+                return null;
+        }
+    }
 }
@@ -0,0 +1,53 @@
+package com.example.taskapp.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+
+/**
+ * 所有者（ユーザー / ゲスト）ごとのタスク集合のバージョン。
+ * タスク・サブタスクを変更するトランザクションの中で +1 する（TaskChangeTracker）。
+ * 更新は行ロックで直列化されるので、同じ所有者のバージョンはコミット順に並ぶ。
+ */
+@Entity
+@Table(name = "task_set_versions")
+public class TaskSetVersion {
+
+    // ユーザーID（ゲストは 0）
+    @Id
+    private Long ownerKey;
+
+    @Column(nullable = false)
+    private long version;
+
+    // これ以下のバージョンの削除記録（task_tombstones）は消してあるので差分を返せない
+    @Column(nullable = false)
+    private long prunedVersion;
+
+    // ===== getter / setter =====
+
+    public Long getOwnerKey() {
+        return ownerKey;
+    }
+
+    public void setOwnerKey(Long ownerKey) {
+        this.ownerKey = ownerKey;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public long getPrunedVersion() {
+        return prunedVersion;
+    }
+
+    public void setPrunedVersion(long prunedVersion) {
+        this.prunedVersion = prunedVersion;
+    }
+}
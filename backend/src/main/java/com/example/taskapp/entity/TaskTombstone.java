@@ -0,0 +1,69 @@
+package com.example.taskapp.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
+/**
+ * 削除したタスクの記録（差分同期で「消えたタスク」を返すため）。
+ * 保持期間を過ぎたものは TaskChangeTracker が消す。
+ */
+@Entity
+@Table(name = "task_tombstones", indexes = {
+        // 所有者ごとの差分取得用
+        @Index(name = "idx_task_tombstones_owner_version", columnList = "owner_key, version"),
+        @Index(name = "idx_task_tombstones_deleted", columnList = "deleted_at")
+})
+public class TaskTombstone {
+
+    @Id
+    private Long taskId;
+
+    // ユーザーID（ゲストは 0）
+    @Column(nullable = false)
+    private long ownerKey;
+
+    // 削除したときの所有者のバージョン（TaskSetVersion）
+    @Column(nullable = false)
+    private long version;
+
+    private LocalDateTime deletedAt;
+
+    // ===== getter / setter =====
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public void setTaskId(Long taskId) {
+        this.taskId = taskId;
+    }
+
+    public long getOwnerKey() {
+        return ownerKey;
+    }
+
+    public void setOwnerKey(long ownerKey) {
+        this.ownerKey = ownerKey;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public LocalDateTime getDeletedAt() {
+        return deletedAt;
+    }
+
+    public void setDeletedAt(LocalDateTime deletedAt) {
+        this.deletedAt = deletedAt;
+    }
+}
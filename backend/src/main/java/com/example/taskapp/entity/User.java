@@ -9,8 +9,10 @@ import java.time.LocalDateTime;
 })
 public class User {
 
+    // 他のエンティティと同じく、50件単位で払い出すシーケンスを使う
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_seq")
+    @SequenceGenerator(name = "users_seq", sequenceName = "users_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
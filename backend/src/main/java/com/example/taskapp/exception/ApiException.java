@@ -0,0 +1,68 @@
+package com.example.taskapp.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.ErrorResponseException;
+
+/**
+ * 想定内の失敗（存在しない ID・未ログイン・不正なカーソル等）を表す API エラー。
+ * {@link ApiExceptionHandler} が RFC 7807（application/problem+json）で返す。
+ * detail と code プロパティには機械判定用のコード（TASK_NOT_FOUND 等）を入れる。
+ *
+ * スキャナや古いクライアントが存在しない ID を叩き続けても CPU とログを食わないよう、
+ * スタックトレースは取らない（原因の追跡が必要な想定外の例外には使わない）。
+ */
+public class ApiException extends ErrorResponseException {
+
+    private final String code;
+
+    public ApiException(HttpStatus status, String code) {
+        super(status, problem(status, code), null);
+        this.code = code;
+    }
+
+    public static ApiException badRequest(String code) {
+        return new ApiException(HttpStatus.BAD_REQUEST, code);
+    }
+
+    public static ApiException unauthorized(String code) {
+        return new ApiException(HttpStatus.UNAUTHORIZED, code);
+    }
+
+    public static ApiException notFound(String code) {
+        return new ApiException(HttpStatus.NOT_FOUND, code);
+    }
+
+    public static ApiException conflict(String code) {
+        return new ApiException(HttpStatus.CONFLICT, code);
+    }
+
+    public static ApiException tooManyRequests(String code) {
+        return new ApiException(HttpStatus.TOO_MANY_REQUESTS, code);
+    }
+
+    public static ApiException serviceUnavailable(String code) {
+        return new ApiException(HttpStatus.SERVICE_UNAVAILABLE, code);
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    @Override
+    public String getMessage() {
+        return getStatusCode().value() + " " + code;
+    }
+
+    // スタックトレースを取らない
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+
+    private static ProblemDetail problem(HttpStatus status, String code) {
+        ProblemDetail problem = ProblemDetail.forStatusAndDetail(status, code);
+        problem.setProperty("code", code);
+        return problem;
+    }
+}
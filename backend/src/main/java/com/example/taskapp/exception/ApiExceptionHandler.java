@@ -0,0 +1,58 @@
+package com.example.taskapp.exception;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+
+import com.example.taskapp.config.RequestIdFilter;
+
+/**
+ * API のエラーレスポンスを RFC 7807（application/problem+json）にそろえる。
+ * - ApiException / ResponseStatusException / Spring MVC の標準例外（型不一致・ボディ不正等）は親クラスが変換
+ * - それ以外の想定外の例外だけ 500 にして、スタックつきでログに残す
+ * どのレスポンスにも requestId を付けて、ログと突き合わせられるようにする。
+ */
+@RestControllerAdvice
+public class ApiExceptionHandler extends ResponseEntityExceptionHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(ApiExceptionHandler.class);
+
+    // 認証・認可の失敗は Spring Security（ExceptionTranslationFilter）に任せる
+    @ExceptionHandler({ AccessDeniedException.class, AuthenticationException.class })
+    public void rethrowSecurityException(RuntimeException ex) {
+        throw ex;
+    }
+
+    @ExceptionHandler(Exception.class)
+    public ResponseEntity<Object> handleUnexpected(Exception ex, WebRequest request) {
+        log.error("Unhandled exception", ex);
+        HttpStatus status = HttpStatus.INTERNAL_SERVER_ERROR;
+        ProblemDetail body = ProblemDetail.forStatusAndDetail(status, "INTERNAL_ERROR");
+        body.setProperty("code", "INTERNAL_ERROR");
+        return handleExceptionInternal(ex, body, new HttpHeaders(), status, request);
+    }
+
+    @Override
+    protected ResponseEntity<Object> handleExceptionInternal(Exception ex, Object body,
+            HttpHeaders headers, HttpStatusCode statusCode, WebRequest request) {
+        ResponseEntity<Object> response = super.handleExceptionInternal(ex, body, headers,
+                statusCode, request);
+        String requestId = MDC.get(RequestIdFilter.MDC_KEY);
+        if (requestId != null && response != null
+                && response.getBody() instanceof ProblemDetail problem) {
+            problem.setProperty("requestId", requestId);
+        }
+        return response;
+    }
+}
@@ -1,9 +1,16 @@
 package com.example.taskapp.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.taskapp.entity.AiDecisionLog;
 
@@ -12,4 +19,77 @@ public interface AiDecisionLogRepository
         extends JpaRepository<AiDecisionLog, Long> {
 
     List<AiDecisionLog> findByTaskIdOrderByCreatedAtDesc(Long taskId);
+
+    // ===== 履歴のキーセットページング（新しい順、同時刻は id で順序を固定） =====
+
+    @Query("select l from AiDecisionLog l where l.taskId = :taskId "
+            + "order by l.createdAt desc, l.id desc")
+    List<AiDecisionLog> findFirstPage(@Param("taskId") Long taskId, Pageable pageable);
+
+    @Query("select l from AiDecisionLog l where l.taskId = :taskId "
+            + "and (l.createdAt < :createdAt or (l.createdAt = :createdAt and l.id < :id)) "
+            + "order by l.createdAt desc, l.id desc")
+    List<AiDecisionLog> findPageAfter(@Param("taskId") Long taskId,
+            @Param("createdAt") LocalDateTime createdAt, @Param("id") Long id, Pageable pageable);
+
+    // ===== タスクごとの最新判断（ウィンドウ関数で1クエリ。所有者は tasks と JOIN して絞る） =====
+
+    String LATEST_SELECT = "SELECT id, task_id, suggested_state, reason, created_at FROM ("
+            + "SELECT l.id, l.task_id, l.suggested_state, l.reason, l.created_at, "
+            + "ROW_NUMBER() OVER (PARTITION BY l.task_id ORDER BY l.created_at DESC, l.id DESC) AS rn "
+            + "FROM ai_decision_logs l JOIN tasks t ON t.id = l.task_id WHERE ";
+    String LATEST_WHERE_RANK = ") ranked WHERE rn = 1 ORDER BY task_id";
+
+    @Query(value = LATEST_SELECT + "t.user_id = :userId" + LATEST_WHERE_RANK, nativeQuery = true)
+    List<AiDecisionLog> findLatestByUserId(@Param("userId") Long userId);
+
+    @Query(value = LATEST_SELECT + "t.user_id = :userId AND l.task_id IN (:taskIds)"
+            + LATEST_WHERE_RANK, nativeQuery = true)
+    List<AiDecisionLog> findLatestByUserIdAndTaskIds(@Param("userId") Long userId,
+            @Param("taskIds") Collection<Long> taskIds);
+
+    @Query(value = LATEST_SELECT + "t.user_id IS NULL" + LATEST_WHERE_RANK, nativeQuery = true)
+    List<AiDecisionLog> findLatestForGuest();
+
+    @Query(value = LATEST_SELECT + "t.user_id IS NULL AND l.task_id IN (:taskIds)"
+            + LATEST_WHERE_RANK, nativeQuery = true)
+    List<AiDecisionLog> findLatestForGuestAndTaskIds(@Param("taskIds") Collection<Long> taskIds);
+
+    // ===== 保持期間・件数の管理（いずれも1文で一括削除） =====
+
+    // タスク削除時にそのタスクのログをまとめて削除
+    @Transactional
+    @Modifying
+    @Query("delete from AiDecisionLog l where l.taskId = :taskId")
+    int deleteByTaskId(@Param("taskId") Long taskId);
+
+    // 期限切れログを最大 batchSize 件削除
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM ai_decision_logs WHERE id IN ("
+            + "SELECT id FROM ai_decision_logs WHERE created_at < :cutoff LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+
+    // 履歴が上限を超えているタスク
+    @Query(value = "SELECT task_id FROM ai_decision_logs GROUP BY task_id "
+            + "HAVING COUNT(*) > :maxPerTask LIMIT :limit", nativeQuery = true)
+    List<Long> findTaskIdsOverCap(@Param("maxPerTask") int maxPerTask, @Param("limit") int limit);
+
+    // 1タスクについて新しい maxPerTask 件を残して削除
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM ai_decision_logs WHERE task_id = :taskId AND id NOT IN ("
+            + "SELECT id FROM ai_decision_logs WHERE task_id = :taskId "
+            + "ORDER BY created_at DESC, id DESC LIMIT :maxPerTask)", nativeQuery = true)
+    int trimTaskHistory(@Param("taskId") Long taskId, @Param("maxPerTask") int maxPerTask);
+
+    // タスクが存在しないログを最大 batchSize 件削除
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM ai_decision_logs WHERE id IN ("
+            + "SELECT l.id FROM ai_decision_logs l WHERE NOT EXISTS ("
+            + "SELECT 1 FROM tasks t WHERE t.id = l.task_id) LIMIT :batchSize)",
+            nativeQuery = true)
+    int deleteOrphans(@Param("batchSize") int batchSize);
 }
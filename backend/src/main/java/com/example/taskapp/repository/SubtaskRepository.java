@@ -1,13 +1,40 @@
 package com.example.taskapp.repository;
 
+import com.example.taskapp.dto.SubtaskResponse;
 import com.example.taskapp.entity.Subtask;
 import com.example.taskapp.entity.Task;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface SubtaskRepository extends JpaRepository<Subtask, Long> {
     List<Subtask> findByTask(Task task);
-    void deleteByTask(Task task);
-}
 
+    // 複数タスクのサブタスクを1クエリで DTO として取得（Task のプロキシに触れない）
+    @Query("select new com.example.taskapp.dto.SubtaskResponse(s.id, s.title, s.completed, s.task.id)"
+            + " from Subtask s where s.task.id in :taskIds order by s.id")
+    List<SubtaskResponse> findResponsesByTaskIdIn(@Param("taskIds") Collection<Long> taskIds);
+
+    // タスク削除時にサブタスクをまとめて削除（エンティティを読み込まず1文で実行）
+    @Modifying
+    @Query("delete from Subtask s where s.task.id = :taskId")
+    int deleteByTaskId(@Param("taskId") Long taskId);
+
+    // 完了フラグが実際に変わったときだけ 1 を返す（カウンタ更新の判定用）
+    @Modifying
+    @Query("update Subtask s set s.completed = :completed where s.id = :id and s.completed <> :completed")
+    int updateCompleted(@Param("id") Long id, @Param("completed") boolean completed);
+
+    @Modifying
+    @Query("update Subtask s set s.title = :title where s.id = :id")
+    int updateTitle(@Param("id") Long id, @Param("title") String title);
+
+    // 完了状態が completed のときだけ削除する（削除時点の状態でカウンタを減らすため）
+    @Modifying
+    @Query("delete from Subtask s where s.id = :id and s.completed = :completed")
+    int deleteByIdAndCompleted(@Param("id") Long id, @Param("completed") boolean completed);
+}
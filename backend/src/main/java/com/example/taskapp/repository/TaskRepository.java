@@ -3,15 +3,64 @@ package com.example.taskapp.repository;
 import com.example.taskapp.entity.Task;
 import com.example.taskapp.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
-public interface TaskRepository extends JpaRepository<Task, Long> {
+public interface TaskRepository extends JpaRepository<Task, Long>, TaskRepositoryCustom {
 
     // 👇 ログイン中ユーザーのタスク一覧取得
     List<Task> findByUser(User user);
 
     // 👇 「自分のタスクかどうか」を確認しつつ1件取得
     Optional<Task> findByIdAndUser(Long id, User user);
+
+    // 👇 指定IDのうち自分のタスクだけをまとめて取得
+    List<Task> findByIdInAndUser(Collection<Long> ids, User user);
+
+    // 👇 サブタスクカウンタを相対値で更新（SET x = x + ? なので同時更新でも取りこぼさない）。
+    //    サブタスクの変更もタスクの変更として差分同期に載せるため、変更バージョンも同時に書く
+    @Modifying
+    @Query("update Task t set t.subtaskTotal = t.subtaskTotal + :total,"
+            + " t.subtaskCompleted = t.subtaskCompleted + :completed,"
+            + " t.changeVersion = :version, t.updatedAt = :updatedAt where t.id = :taskId")
+    int adjustSubtaskCounters(@Param("taskId") Long taskId, @Param("total") int total,
+            @Param("completed") int completed, @Param("version") long version,
+            @Param("updatedAt") LocalDateTime updatedAt);
+
+    // 👇 カウンタ修復用：id 順に batch 件ずつタスクIDを取得
+    @Query(value = "SELECT id FROM tasks WHERE id > :afterId ORDER BY id LIMIT :limit",
+            nativeQuery = true)
+    List<Long> findIdsAfter(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    // 👇 カウンタがずれているかの条件（修復の対象行）
+    String COUNTER_DRIFT = "(subtask_total <> "
+            + "(SELECT COUNT(*) FROM subtasks s WHERE s.task_id = tasks.id) "
+            + "OR subtask_completed <> (SELECT COUNT(*) FROM subtasks s "
+            + "WHERE s.task_id = tasks.id AND s.completed = TRUE))";
+
+    // 👇 id 範囲内でカウンタがずれているタスクの所有者（ユーザーID、ゲストは 0）
+    @Query(value = "SELECT DISTINCT COALESCE(user_id, 0) FROM tasks "
+            + "WHERE id BETWEEN :fromId AND :toId AND " + COUNTER_DRIFT, nativeQuery = true)
+    List<Long> findDriftedOwnerKeys(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    // 👇 id 範囲内・所有者のタスクのうち、ずれているカウンタだけを実件数で上書き（変更バージョンも書く）
+    @Transactional
+    @Modifying
+    @Query(value = "UPDATE tasks SET "
+            + "subtask_total = (SELECT COUNT(*) FROM subtasks s WHERE s.task_id = tasks.id), "
+            + "subtask_completed = (SELECT COUNT(*) FROM subtasks s "
+            + "WHERE s.task_id = tasks.id AND s.completed = TRUE), "
+            + "change_version = :version, updated_at = :updatedAt "
+            + "WHERE id BETWEEN :fromId AND :toId AND COALESCE(user_id, 0) = :ownerKey AND "
+            + COUNTER_DRIFT, nativeQuery = true)
+    int repairSubtaskCounters(@Param("fromId") long fromId, @Param("toId") long toId,
+            @Param("ownerKey") long ownerKey, @Param("version") long version,
+            @Param("updatedAt") LocalDateTime updatedAt);
 }
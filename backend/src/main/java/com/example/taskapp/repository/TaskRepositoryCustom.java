@@ -0,0 +1,25 @@
+package com.example.taskapp.repository;
+
+import java.util.List;
+
+import com.example.taskapp.dto.TaskBoardItem;
+import com.example.taskapp.dto.TaskCursor;
+import com.example.taskapp.dto.TaskFilter;
+import com.example.taskapp.dto.TaskResponse;
+import com.example.taskapp.dto.TaskSort;
+
+public interface TaskRepositoryCustom {
+
+    // 👇 キーセット方式で1ページ分取得（userId が null ならゲスト用タスク）
+    List<TaskResponse> findPage(Long userId, TaskFilter filter, TaskSort sort, TaskCursor after,
+            int limit);
+
+    // 👇 ボード用：タスク + サブタスク件数を1クエリで取得（userId が null ならゲスト用タスク）
+    List<TaskBoardItem> findBoard(Long userId);
+
+    // 👇 タスク一覧を DTO で取得（userId が null ならゲスト用タスク）
+    List<TaskResponse> findResponses(Long userId);
+
+    // 👇 差分同期用：since より後のバージョンで変更したタスク（userId が null ならゲスト用タスク）
+    List<TaskResponse> findResponsesChangedSince(Long userId, long since);
+}
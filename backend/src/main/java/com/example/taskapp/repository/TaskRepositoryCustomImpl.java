@@ -0,0 +1,131 @@
+package com.example.taskapp.repository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.example.taskapp.dto.TaskBoardItem;
+import com.example.taskapp.dto.TaskCursor;
+import com.example.taskapp.dto.TaskFilter;
+import com.example.taskapp.dto.TaskResponse;
+import com.example.taskapp.dto.TaskSort;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+
+public class TaskRepositoryCustomImpl implements TaskRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<TaskResponse> findPage(Long userId, TaskFilter filter, TaskSort sort, TaskCursor after,
+            int limit) {
+
+        StringBuilder jpql = new StringBuilder(TaskResponse.JPQL_SELECT)
+                .append(" from Task t where ");
+        Map<String, Object> params = new HashMap<>();
+
+        if (userId != null) {
+            jpql.append("t.user.id = :userId");
+            params.put("userId", userId);
+        } else {
+            jpql.append("t.user is null");
+        }
+
+        if (filter != null) {
+            if (filter.getState() != null) {
+                jpql.append(" and t.state = :state");
+                params.put("state", filter.getState());
+            }
+            if (filter.getCompleted() != null) {
+                jpql.append(" and t.completed = :completed");
+                params.put("completed", filter.getCompleted());
+            }
+            if (filter.getPriority() != null) {
+                jpql.append(" and t.priority = :priority");
+                params.put("priority", filter.getPriority());
+            }
+            if (filter.getDueFrom() != null) {
+                jpql.append(" and t.dueDate >= :dueFrom");
+                params.put("dueFrom", filter.getDueFrom());
+            }
+            if (filter.getDueTo() != null) {
+                jpql.append(" and t.dueDate <= :dueTo");
+                params.put("dueTo", filter.getDueTo());
+            }
+        }
+
+        String key = "t." + sort.getProperty();
+        String cmp = sort.isAscending() ? ">" : "<";
+        String dir = sort.isAscending() ? "asc" : "desc";
+
+        // 直前ページ末尾より後ろだけを読む（NULL はどちらの向きでも末尾に並べる）
+        if (after != null) {
+            if (after.value() != null) {
+                jpql.append(" and (").append(key).append(' ').append(cmp).append(" :afterValue")
+                        .append(" or (").append(key).append(" = :afterValue and t.id ")
+                        .append(cmp).append(" :afterId)").append(" or ").append(key)
+                        .append(" is null)");
+                params.put("afterValue", after.value());
+            } else {
+                jpql.append(" and ").append(key).append(" is null and t.id ").append(cmp)
+                        .append(" :afterId");
+            }
+            params.put("afterId", after.id());
+        }
+
+        jpql.append(" order by ").append(key).append(' ').append(dir).append(" nulls last, t.id ")
+                .append(dir);
+
+        TypedQuery<TaskResponse> query = entityManager.createQuery(jpql.toString(),
+                TaskResponse.class);
+        params.forEach(query::setParameter);
+        query.setMaxResults(limit);
+        return query.getResultList();
+    }
+
+    @Override
+    public List<TaskBoardItem> findBoard(Long userId) {
+        // サブタスクの件数はタスク側のカウンタを読むだけ（tasks 1テーブルで完結）
+        String jpql = "select new com.example.taskapp.dto.TaskBoardItem("
+                + "t.id, t.title, t.description, t.completed, t.createdAt, t.dueDate, t.priority,"
+                + " t.state, t.subtaskTotal, t.subtaskCompleted)"
+                + " from Task t where "
+                + (userId != null ? "t.user.id = :userId" : "t.user is null")
+                + " order by t.createdAt desc, t.id desc";
+
+        TypedQuery<TaskBoardItem> query = entityManager.createQuery(jpql, TaskBoardItem.class);
+        if (userId != null) {
+            query.setParameter("userId", userId);
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public List<TaskResponse> findResponses(Long userId) {
+        String jpql = TaskResponse.JPQL_SELECT + " from Task t where "
+                + (userId != null ? "t.user.id = :userId" : "t.user is null");
+
+        TypedQuery<TaskResponse> query = entityManager.createQuery(jpql, TaskResponse.class);
+        if (userId != null) {
+            query.setParameter("userId", userId);
+        }
+        return query.getResultList();
+    }
+
+    @Override
+    public List<TaskResponse> findResponsesChangedSince(Long userId, long since) {
+        String jpql = TaskResponse.JPQL_SELECT + " from Task t where "
+                + (userId != null ? "t.user.id = :userId" : "t.user is null")
+                + " and t.changeVersion > :since order by t.changeVersion";
+
+        TypedQuery<TaskResponse> query = entityManager.createQuery(jpql, TaskResponse.class);
+        if (userId != null) {
+            query.setParameter("userId", userId);
+        }
+        query.setParameter("since", since);
+        return query.getResultList();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.taskapp.repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.taskapp.entity.TaskSetVersion;
+
+@Repository
+public interface TaskSetVersionRepository extends JpaRepository<TaskSetVersion, Long> {
+
+    // 👇 バージョンを +1（行ロックはコミットまで保持される）。行が無ければ 0 件
+    @Modifying
+    @Query(value = "UPDATE task_set_versions SET version = version + 1 WHERE owner_key = :ownerKey",
+            nativeQuery = true)
+    int increment(@Param("ownerKey") long ownerKey);
+
+    // 👇 初回だけ行を作る（同時に作られても一意制約で片方は何もしない）
+    @Modifying
+    @Query(value = "INSERT INTO task_set_versions (owner_key, version, pruned_version) "
+            + "VALUES (:ownerKey, 0, 0) ON CONFLICT DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("ownerKey") long ownerKey);
+
+    @Query("select v.version from TaskSetVersion v where v.ownerKey = :ownerKey")
+    Optional<Long> findVersion(@Param("ownerKey") long ownerKey);
+
+    @Query("select v.prunedVersion from TaskSetVersion v where v.ownerKey = :ownerKey")
+    Optional<Long> findPrunedVersion(@Param("ownerKey") long ownerKey);
+
+    // 👇 削除記録を消す前に、消える範囲のバージョンを所有者ごとに記録する
+    @Modifying
+    @Query(value = "UPDATE task_set_versions SET pruned_version = ("
+            + "SELECT MAX(t.version) FROM task_tombstones t "
+            + "WHERE t.owner_key = task_set_versions.owner_key AND t.deleted_at < :cutoff) "
+            + "WHERE EXISTS (SELECT 1 FROM task_tombstones t "
+            + "WHERE t.owner_key = task_set_versions.owner_key AND t.deleted_at < :cutoff)",
+            nativeQuery = true)
+    int markPruned(@Param("cutoff") LocalDateTime cutoff);
+}
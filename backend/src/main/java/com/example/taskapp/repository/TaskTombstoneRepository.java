@@ -0,0 +1,25 @@
+package com.example.taskapp.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.example.taskapp.entity.TaskTombstone;
+
+@Repository
+public interface TaskTombstoneRepository extends JpaRepository<TaskTombstone, Long> {
+
+    // 👇 since より後に削除したタスクのID
+    @Query("select t.taskId from TaskTombstone t where t.ownerKey = :ownerKey and t.version > :since "
+            + "order by t.version")
+    List<Long> findTaskIdsDeletedSince(@Param("ownerKey") long ownerKey, @Param("since") long since);
+
+    @Modifying
+    @Query("delete from TaskTombstone t where t.deletedAt < :cutoff")
+    int deleteOlderThan(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,9 +1,22 @@
 package com.example.taskapp.repository;
 
+import com.example.taskapp.dto.UserResponse;
 import com.example.taskapp.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.Optional;
 
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
+    // 認証フィルタ用：id だけを読む
+    @Query("select u.id from User u where u.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
+
+    // /auth/me 用：必要な列だけを DTO で読む
+    @Query("select new com.example.taskapp.dto.UserResponse(u.id, u.email, u.createdAt)"
+            + " from User u where u.email = :email")
+    Optional<UserResponse> findResponseByEmail(@Param("email") String email);
 }
@@ -0,0 +1,12 @@
+package com.example.taskapp.security;
+
+import java.security.Principal;
+
+// JWT 検証時に解決したログインユーザー（auth.getName() は従来どおり email を返す）
+public record AuthenticatedUser(Long id, String email) implements Principal {
+
+    @Override
+    public String getName() {
+        return email;
+    }
+}
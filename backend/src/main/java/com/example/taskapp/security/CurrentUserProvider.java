@@ -0,0 +1,65 @@
+package com.example.taskapp.security;
+
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import com.example.taskapp.entity.User;
+import com.example.taskapp.exception.ApiException;
+import com.example.taskapp.repository.UserRepository;
+
+/**
+ * SecurityContext からログイン中ユーザーを取り出す。
+ * 返す User は ID だけを持つ参照（プロキシ）なので、users テーブルへの問い合わせは発生しない。
+ */
+@Component
+public class CurrentUserProvider {
+
+    private final UserRepository userRepository;
+    private final UserIdCache userIdCache;
+
+    public CurrentUserProvider(UserRepository userRepository, UserIdCache userIdCache) {
+        this.userRepository = userRepository;
+        this.userIdCache = userIdCache;
+    }
+
+    public User getCurrentUser() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+        if (!isLoggedIn(auth)) {
+            throw ApiException.unauthorized("UNAUTHENTICATED");
+        }
+
+        Long userId = resolveUserId(auth);
+        if (userId == null) {
+            // トークンは正しいがユーザーが削除済み
+            throw ApiException.unauthorized("USER_NOT_FOUND");
+        }
+        return userRepository.getReferenceById(userId);
+    }
+
+    public User getCurrentUserOrNull() {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+
+        if (!isLoggedIn(auth)) {
+            return null;
+        }
+
+        Long userId = resolveUserId(auth);
+        return userId != null ? userRepository.getReferenceById(userId) : null;
+    }
+
+    private boolean isLoggedIn(Authentication auth) {
+        return auth != null && auth.isAuthenticated()
+                && !(auth instanceof AnonymousAuthenticationToken);
+    }
+
+    // JWT フィルタ経由なら principal に ID が載っている。それ以外（テスト等）は email から引く
+    private Long resolveUserId(Authentication auth) {
+        if (auth.getPrincipal() instanceof AuthenticatedUser principal) {
+            return principal.id();
+        }
+        return userIdCache.findIdByEmail(auth.getName()).orElse(null);
+    }
+}
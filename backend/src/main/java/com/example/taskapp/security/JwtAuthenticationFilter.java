@@ -1,31 +1,48 @@
 package com.example.taskapp.security;
 
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 import org.springframework.context.annotation.Profile;
 
 import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Component
 @Profile("!test")
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    private final UserIdCache userIdCache;
+
+    // JWT 検証の所要時間（検証済みキャッシュのヒットも含む）
+    private final Timer validTokenTimer;
+    private final Timer invalidTokenTimer;
 
     public JwtAuthenticationFilter(JwtUtil jwtUtil,
-                                   UserDetailsService userDetailsService) {
+                                   UserIdCache userIdCache,
+                                   MeterRegistry meterRegistry) {
         this.jwtUtil = jwtUtil;
-        this.userDetailsService = userDetailsService;
+        this.userIdCache = userIdCache;
+        this.validTokenTimer = verifyTimer(meterRegistry, "valid");
+        this.invalidTokenTimer = verifyTimer(meterRegistry, "invalid");
+    }
+
+    private static Timer verifyTimer(MeterRegistry meterRegistry, String result) {
+        return Timer.builder("auth.jwt.verify").description("JWT の署名・期限の検証")
+                .tag("result", result).register(meterRegistry);
     }
 
     @Override
@@ -44,27 +61,37 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         final String token = authHeader.substring(7);
-        final String userEmail = jwtUtil.extractEmail(token);
 
         // すでに認証済みでない場合
-        if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
+
+            // 署名・期限の検証とメールアドレスの取り出しを1回のパースで行う
+            long start = System.nanoTime();
+            final String userEmail = jwtUtil.verify(token).map(Claims::getSubject).orElse(null);
+            (userEmail != null ? validTokenTimer : invalidTokenTimer)
+                    .record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
 
-            if (jwtUtil.validateToken(token)) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
+            if (userEmail != null) {
+                // ユーザーIDはキャッシュから解決（コントローラーは principal の ID をそのまま使う）
+                Optional<Long> userId = userIdCache.findIdByEmail(userEmail);
 
-                UsernamePasswordAuthenticationToken authToken =
-                        new UsernamePasswordAuthenticationToken(
-                                userDetails,
-                                null,
-                                userDetails.getAuthorities()
-                        );
+                if (userId.isPresent()) {
+                    UsernamePasswordAuthenticationToken authToken =
+                            new UsernamePasswordAuthenticationToken(
+                                    new AuthenticatedUser(userId.get(), userEmail),
+                                    null,
+                                    AuthorityUtils.createAuthorityList("USER")
+                            );
 
-                authToken.setDetails(
-                        new WebAuthenticationDetailsSource().buildDetails(request)
-                );
+                    authToken.setDetails(
+                            new WebAuthenticationDetailsSource().buildDetails(request)
+                    );
 
-                // 認証完了！
-                SecurityContextHolder.getContext().setAuthentication(authToken);
+                    // 認証完了！
+                    SecurityContextHolder.getContext().setAuthentication(authToken);
+                    // 以降のログにユーザーIDを付ける（RequestIdFilter が最後に片付ける）
+                    MDC.put("userId", String.valueOf(userId.get()));
+                }
             }
         }
 
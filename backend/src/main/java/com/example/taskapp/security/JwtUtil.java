@@ -2,10 +2,21 @@ package com.example.taskapp.security;
 
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 @Component
 public class JwtUtil {
@@ -16,8 +27,18 @@ public class JwtUtil {
     // 有効期限：7日
     private static final long EXPIRATION_MS = 1000 * 60 * 60 * 24 * 7;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    // 署名鍵とパーサーは1度だけ作って使い回す（どちらもスレッドセーフ）
+    private final Key signingKey = Keys.hmacShaKeyFor(SECRET_KEY.getBytes());
+    private final JwtParser parser = Jwts.parserBuilder().setSigningKey(signingKey).build();
+
+    // 検証済みトークン（SHA-256 ハッシュ → Claims）。トークンの有効期限で自動的に消える
+    private final Cache<String, Claims> verifiedTokens;
+
+    public JwtUtil(@Value("${app.jwt.verified-cache.max-size:10000}") long verifiedCacheSize) {
+        this.verifiedTokens = verifiedCacheSize > 0
+                ? Caffeine.newBuilder().maximumSize(verifiedCacheSize)
+                        .expireAfter(new UntilTokenExpires()).recordStats().build()
+                : null;
     }
 
     // JWT生成
@@ -26,30 +47,85 @@ public class JwtUtil {
                 .setSubject(email)
                 .setIssuedAt(new Date())
                 .setExpiration(new Date(System.currentTimeMillis() + EXPIRATION_MS))
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
+    // 署名と有効期限を1回のパースで検証し、Claims を返す（不正なら empty）
+    public Optional<Claims> verify(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+
+        String cacheKey = verifiedTokens != null ? hash(token) : null;
+        if (cacheKey != null) {
+            Claims cached = verifiedTokens.getIfPresent(cacheKey);
+            if (cached != null && !isExpired(cached)) {
+                return Optional.of(cached);
+            }
+        }
+
+        try {
+            Claims claims = parser.parseClaimsJws(token).getBody();
+            if (cacheKey != null && claims.getExpiration() != null) {
+                verifiedTokens.put(cacheKey, claims);
+            }
+            return Optional.of(claims);
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
     // JWTからメールアドレス取得
     public String extractEmail(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return verify(token).map(Claims::getSubject)
+                .orElseThrow(() -> new JwtException("Invalid token"));
     }
 
     // Tokenが有効か確認
     public boolean validateToken(String token) {
+        return verify(token).isPresent();
+    }
+
+    // キャッシュ無効（max-size=0）のときは empty
+    public Optional<Cache<String, Claims>> verifiedTokenCache() {
+        return Optional.ofNullable(verifiedTokens);
+    }
+
+    private static boolean isExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.getTime() <= System.currentTimeMillis();
+    }
+
+    // トークン本体をキャッシュに残さないようハッシュをキーにする
+    private static String hash(String token) {
         try {
-            Jwts.parserBuilder()
-                    .setSigningKey(getSigningKey())
-                    .build()
-                    .parseClaimsJws(token);
-            return true;
-        } catch (JwtException | IllegalArgumentException e) {
-            return false;
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class UntilTokenExpires implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            long remainingMs = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, remainingMs));
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime,
+                long currentDuration) {
+            return expireAfterCreate(key, claims, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime,
+                long currentDuration) {
+            return currentDuration;
         }
     }
 }
@@ -0,0 +1,49 @@
+package com.example.taskapp.security;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.taskapp.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * email → ユーザーID のインプロセスキャッシュ。
+ * リクエストごとの users テーブル参照を省く（件数上限 + TTL で追い出し）。
+ */
+@Component
+public class UserIdCache {
+
+    private final UserRepository userRepository;
+    private final Cache<String, Long> cache;
+
+    public UserIdCache(UserRepository userRepository,
+            @Value("${app.auth.user-cache.max-size:10000}") long maxSize,
+            @Value("${app.auth.user-cache.ttl:10m}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder().maximumSize(maxSize).expireAfterWrite(ttl)
+                .recordStats().build();
+    }
+
+    // 見つからない email はキャッシュしない（登録直後にすぐ引けるように）
+    public Optional<Long> findIdByEmail(String email) {
+        Long cached = cache.getIfPresent(email);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        Optional<Long> id = userRepository.findIdByEmail(email);
+        id.ifPresent(value -> cache.put(email, value));
+        return id;
+    }
+
+    public void evict(String email) {
+        cache.invalidate(email);
+    }
+
+    public Cache<String, Long> cache() {
+        return cache;
+    }
+}
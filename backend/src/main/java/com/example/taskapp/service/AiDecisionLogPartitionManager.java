@@ -0,0 +1,160 @@
+package com.example.taskapp.service;
+
+import java.sql.DatabaseMetaData;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * ai_decision_logs の月次パーティション管理（PostgreSQL でパーティション化済みの場合のみ有効）。
+ * パーティション化は db/postgres/ai_decision_logs_partitioning.sql で行う。
+ * パーティション名は ai_decision_logs_pYYYYMM（created_at の月）。
+ *
+ * 起動直後と一定間隔で months-ahead ヶ月先までのパーティションを作っておく（保持期間の削除とは独立）。
+ * それでも月をまたいだ時点で無かった場合に備えて DEFAULT パーティション（ai_decision_logs_default）を置き、
+ * DEFAULT に入った行は、その月のパーティションを作るときに移す。
+ */
+@Component
+public class AiDecisionLogPartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(AiDecisionLogPartitionManager.class);
+
+    private static final String DEFAULT_PARTITION = "ai_decision_logs_default";
+    private static final String PREFIX = "ai_decision_logs_p";
+    private static final Pattern PARTITION_NAME = Pattern.compile(PREFIX + "(\\d{6})");
+    private static final DateTimeFormatter SUFFIX = DateTimeFormatter.ofPattern("yyyyMM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int monthsAhead;
+    private volatile Boolean partitioned;
+
+    public AiDecisionLogPartitionManager(JdbcTemplate jdbcTemplate,
+            TransactionTemplate transactionTemplate,
+            @Value("${app.ai.log-partitions.enabled:true}") boolean enabled,
+            @Value("${app.ai.log-partitions.months-ahead:3}") int monthsAhead) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.monthsAhead = monthsAhead;
+    }
+
+    @Scheduled(initialDelayString = "${app.ai.log-partitions.initial-delay:PT0S}",
+            fixedDelayString = "${app.ai.log-partitions.interval:PT12H}")
+    public void runScheduled() {
+        if (!enabled || !isPartitioned()) {
+            return;
+        }
+        try {
+            ensurePartitions(YearMonth.now(), monthsAhead);
+        } catch (DataAccessException e) {
+            // 次の実行で再試行する（その間の INSERT は DEFAULT パーティションが受ける）
+            log.warn("Failed to create ai_decision_logs partitions: {}", e.getMessage());
+        }
+    }
+
+    public boolean isPartitioned() {
+        if (partitioned == null) {
+            partitioned = detect();
+        }
+        return partitioned;
+    }
+
+    // 当月から monthsAhead ヶ月先までのパーティションを用意
+    public void ensurePartitions(YearMonth from, int monthsAhead) {
+        // 移行スクリプトで作っていない既存環境にも受け皿を用意する
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + DEFAULT_PARTITION
+                + " PARTITION OF ai_decision_logs DEFAULT");
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = from.plusMonths(i);
+            String name = PREFIX + month.format(SUFFIX);
+            if (!exists(name)) {
+                createFromDefault(name, month.atDay(1), month.plusMonths(1).atDay(1));
+            }
+        }
+    }
+
+    // DEFAULT にその月の行があると PARTITION OF では作れないので、
+    // 別テーブルに移してから ATTACH する（インデックスは ATTACH 時に作られる）
+    private void createFromDefault(String name, LocalDate from, LocalDate to) {
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.execute("CREATE TABLE " + name
+                    + " (LIKE ai_decision_logs INCLUDING DEFAULTS INCLUDING CONSTRAINTS)");
+            int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                    + " WHERE created_at >= ? AND created_at < ? RETURNING *) INSERT INTO " + name
+                    + " SELECT * FROM moved", from.atStartOfDay(), to.atStartOfDay());
+            jdbcTemplate.execute("ALTER TABLE ai_decision_logs ATTACH PARTITION " + name
+                    + " FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+            if (moved > 0) {
+                log.info("Moved {} rows from {} to {}", moved, DEFAULT_PARTITION, name);
+            }
+        });
+    }
+
+    // 月末が cutoff 以前のパーティションを丸ごと削除（行単位の DELETE をしない）
+    public int dropPartitionsBefore(LocalDate cutoff) {
+        List<String> names = jdbcTemplate.queryForList(
+                "SELECT c.relname FROM pg_inherits i "
+                        + "JOIN pg_class c ON c.oid = i.inhrelid "
+                        + "JOIN pg_class p ON p.oid = i.inhparent "
+                        + "WHERE p.relname = 'ai_decision_logs'",
+                String.class);
+
+        int dropped = 0;
+        for (String name : names) {
+            Matcher m = PARTITION_NAME.matcher(name);
+            if (!m.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.parse(m.group(1), SUFFIX);
+            if (!month.plusMonths(1).atDay(1).isAfter(cutoff)) {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + name);
+                dropped++;
+            }
+        }
+        // DEFAULT に残った古い行（通常は空）
+        if (exists(DEFAULT_PARTITION)) {
+            jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE created_at < ?",
+                    cutoff.atStartOfDay());
+        }
+        return dropped;
+    }
+
+    private boolean exists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "SELECT to_regclass(?) IS NOT NULL", Boolean.class, table));
+    }
+
+    private boolean detect() {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(jdbcTemplate.getDataSource(),
+                    DatabaseMetaData::getDatabaseProductName);
+            if (!"PostgreSQL".equals(product)) {
+                return false;
+            }
+        } catch (MetaDataAccessException e) {
+            return false;
+        }
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_partitioned_table pt "
+                        + "JOIN pg_class c ON c.oid = pt.partrelid "
+                        + "WHERE c.relname = 'ai_decision_logs'",
+                Integer.class);
+        return count != null && count > 0;
+    }
+}
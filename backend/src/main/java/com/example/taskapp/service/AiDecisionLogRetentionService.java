@@ -0,0 +1,109 @@
+package com.example.taskapp.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.taskapp.repository.AiDecisionLogRepository;
+
+/**
+ * AI 判断ログの保持期間・件数の管理（定期実行）。
+ * 1. 保存期間（max-age）を過ぎたログの削除（パーティション化済みならパーティションごと削除）
+ * 2. タスクごとの件数上限（max-per-task）を超えた古いログの削除
+ * 3. 削除済みタスクのログ（孤児）の削除
+ * いずれも batch-size 件ずつ、1回の実行で最大 max-batches-per-run バッチまで処理する。
+ */
+@Service
+public class AiDecisionLogRetentionService {
+
+    private final AiDecisionLogRepository repository;
+    private final AiDecisionLogPartitionManager partitionManager;
+
+    private final boolean enabled;
+    private final Duration maxAge;
+    private final int maxPerTask;
+    private final int batchSize;
+    private final int maxBatchesPerRun;
+
+    public AiDecisionLogRetentionService(AiDecisionLogRepository repository,
+            AiDecisionLogPartitionManager partitionManager,
+            @Value("${app.ai.log-retention.enabled:true}") boolean enabled,
+            @Value("${app.ai.log-retention.max-age:90d}") Duration maxAge,
+            @Value("${app.ai.log-retention.max-per-task:50}") int maxPerTask,
+            @Value("${app.ai.log-retention.batch-size:1000}") int batchSize,
+            @Value("${app.ai.log-retention.max-batches-per-run:100}") int maxBatchesPerRun) {
+        this.repository = repository;
+        this.partitionManager = partitionManager;
+        this.enabled = enabled;
+        this.maxAge = maxAge;
+        this.maxPerTask = maxPerTask;
+        this.batchSize = batchSize;
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+
+    @Scheduled(initialDelayString = "${app.ai.log-retention.initial-delay:PT1M}",
+            fixedDelayString = "${app.ai.log-retention.interval:PT1H}")
+    public void runScheduled() {
+        if (enabled) {
+            run();
+        }
+    }
+
+    public void run() {
+        purgeExpired();
+        trimHistories();
+        purgeOrphans();
+    }
+
+    public int purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(maxAge);
+
+        // 先のパーティションの作成は AiDecisionLogPartitionManager が自分で行う
+        if (partitionManager.isPartitioned()) {
+            return partitionManager.dropPartitionsBefore(cutoff.toLocalDate());
+        }
+
+        int total = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            int deleted = repository.deleteOlderThan(cutoff, batchSize);
+            total += deleted;
+            if (deleted < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    public int trimHistories() {
+        if (maxPerTask <= 0) {
+            return 0;
+        }
+        int total = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            List<Long> taskIds = repository.findTaskIdsOverCap(maxPerTask, batchSize);
+            for (Long taskId : taskIds) {
+                total += repository.trimTaskHistory(taskId, maxPerTask);
+            }
+            if (taskIds.size() < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+
+    public int purgeOrphans() {
+        int total = 0;
+        for (int i = 0; i < maxBatchesPerRun; i++) {
+            int deleted = repository.deleteOrphans(batchSize);
+            total += deleted;
+            if (deleted < batchSize) {
+                break;
+            }
+        }
+        return total;
+    }
+}
@@ -1,15 +1,23 @@
 package com.example.taskapp.service;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import com.example.taskapp.dto.AiDecisionLogCursor;
+import com.example.taskapp.dto.PageResponse;
 import com.example.taskapp.entity.AiDecisionLog;
+import com.example.taskapp.entity.User;
 import com.example.taskapp.repository.AiDecisionLogRepository;
 
 @Service
 public class AiDecisionLogService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+
     private final AiDecisionLogRepository repository;
 
     public AiDecisionLogService(AiDecisionLogRepository repository) {
@@ -19,4 +27,39 @@ public class AiDecisionLogService {
     public List<AiDecisionLog> getLogsByTaskId(Long taskId) {
         return repository.findByTaskIdOrderByCreatedAtDesc(taskId);
     }
+
+    // 履歴をキーセットでページング（OFFSET を使わないので深いページでも一定コスト）
+    public PageResponse<AiDecisionLog> getLogPage(Long taskId, String cursor, Integer limit) {
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        PageRequest firstRows = PageRequest.of(0, size + 1);
+
+        // 1件多く読んで次ページの有無を判定する
+        List<AiDecisionLog> rows;
+        if (cursor == null || cursor.isEmpty()) {
+            rows = repository.findFirstPage(taskId, firstRows);
+        } else {
+            AiDecisionLogCursor after = AiDecisionLogCursor.decode(cursor);
+            rows = repository.findPageAfter(taskId, after.createdAt(), after.id(), firstRows);
+        }
+
+        boolean hasNext = rows.size() > size;
+        List<AiDecisionLog> items = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext
+                ? AiDecisionLogCursor.of(items.get(items.size() - 1)).encode()
+                : null;
+
+        return new PageResponse<>(items, nextCursor, hasNext);
+    }
+
+    // タスクごとの最新判断をまとめて返す（user == null はゲストのタスク）
+    // taskIds 未指定ならそのユーザーの全タスクが対象。判断履歴のないタスクは含まれない
+    public List<AiDecisionLog> getLatestByTask(User user, Collection<Long> taskIds) {
+        boolean all = taskIds == null || taskIds.isEmpty();
+        if (user == null) {
+            return all ? repository.findLatestForGuest()
+                    : repository.findLatestForGuestAndTaskIds(taskIds);
+        }
+        return all ? repository.findLatestByUserId(user.getId())
+                : repository.findLatestByUserIdAndTaskIds(user.getId(), taskIds);
+    }
 }
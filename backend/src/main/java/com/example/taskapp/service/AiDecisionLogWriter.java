@@ -0,0 +1,170 @@
+package com.example.taskapp.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.taskapp.entity.AiDecisionLog;
+import com.example.taskapp.repository.AiDecisionLogRepository;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * AI 判断ログの書き込み（ライトビハインド）。
+ * 判断のレスポンスを待たせないよう、ログはメモリ上のキュー（上限あり）に積むだけにして、
+ * 専用スレッドが件数 or 時間でまとめて JDBC バッチ INSERT する。
+ * キューが満杯のときは overflow-policy に従う（DROP: 即破棄 / BLOCK: offer-timeout まで待って破棄）。
+ * 停止時はキューに残ったログをすべて書き出してから終了する（書き込み中のスレッドは割り込まない）。
+ */
+@Component
+public class AiDecisionLogWriter {
+
+    private static final Logger log = LoggerFactory.getLogger(AiDecisionLogWriter.class);
+
+    public enum OverflowPolicy {
+        DROP, BLOCK
+    }
+
+    private final AiDecisionLogRepository repository;
+    private final BlockingQueue<AiDecisionLog> queue;
+    private final int batchSize;
+    private final Duration flushInterval;
+    private final OverflowPolicy overflowPolicy;
+    private final Duration offerTimeout;
+
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong written = new AtomicLong();
+
+    private final Thread flusher;
+    private volatile boolean running = true;
+
+    public AiDecisionLogWriter(AiDecisionLogRepository repository,
+            @Value("${app.ai.log-writer.queue-capacity:10000}") int queueCapacity,
+            @Value("${app.ai.log-writer.batch-size:50}") int batchSize,
+            @Value("${app.ai.log-writer.flush-interval:200ms}") Duration flushInterval,
+            @Value("${app.ai.log-writer.overflow-policy:BLOCK}") OverflowPolicy overflowPolicy,
+            @Value("${app.ai.log-writer.offer-timeout:50ms}") Duration offerTimeout) {
+        this.repository = repository;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.flushInterval = flushInterval;
+        this.overflowPolicy = overflowPolicy;
+        this.offerTimeout = offerTimeout;
+
+        this.flusher = new Thread(this::runLoop, "ai-decision-log-writer");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    public void append(AiDecisionLog log) {
+        if (!running) {
+            // 停止処理中はその場で書く
+            saveBatch(List.of(log));
+            return;
+        }
+
+        boolean accepted;
+        try {
+            accepted = overflowPolicy == OverflowPolicy.BLOCK
+                    ? queue.offer(log, offerTimeout.toNanos(), TimeUnit.NANOSECONDS)
+                    : queue.offer(log);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            accepted = false;
+        }
+
+        if (!accepted) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    public void appendAll(List<AiDecisionLog> logs) {
+        logs.forEach(this::append);
+    }
+
+    public long droppedCount() {
+        return dropped.get();
+    }
+
+    public long writtenCount() {
+        return written.get();
+    }
+
+    public int pendingCount() {
+        return queue.size();
+    }
+
+    // 最初の1件を待ち、flush-interval の間に batch-size まで溜まれば溜まった分をまとめて書く
+    private void runLoop() {
+        List<AiDecisionLog> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                AiDecisionLog first = queue.poll(flushInterval.toNanos(), TimeUnit.NANOSECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+
+                long deadline = System.nanoTime() + flushInterval.toNanos();
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    AiDecisionLog next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // 停止は running で知らせるので、ここには来ない想定。手元の分を書いてから続ける
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+
+            if (!batch.isEmpty()) {
+                saveBatch(batch);
+                batch.clear();
+            }
+        }
+    }
+
+    private void saveBatch(List<AiDecisionLog> batch) {
+        try {
+            // saveAll は1トランザクション。シーケンスID + hibernate.jdbc.batch_size で1回のバッチ INSERT になる
+            repository.saveAll(batch);
+            written.addAndGet(batch.size());
+        } catch (Exception e) {
+            // ログ保存失敗では業務を止めない
+            dropped.addAndGet(batch.size());
+            log.error("Failed to write {} AI decision logs", batch.size(), e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // 割り込むと書き込み中の JDBC / トランザクションが中断され、そのバッチが破棄になる。
+        // flusher は poll のタイムアウト（flush-interval）ごとに running を見て、キューを空にしてから抜ける
+        running = false;
+        flusher.join(flushInterval.multipliedBy(2).plusSeconds(10).toMillis());
+
+        // 万一スレッドが書き切れなかった分はここで書く
+        List<AiDecisionLog> rest = new ArrayList<>();
+        queue.drainTo(rest);
+        for (int i = 0; i < rest.size(); i += batchSize) {
+            saveBatch(rest.subList(i, Math.min(i + batchSize, rest.size())));
+        }
+    }
+}
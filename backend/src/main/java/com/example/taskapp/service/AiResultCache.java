@@ -0,0 +1,96 @@
+package com.example.taskapp.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.HexFormat;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.example.taskapp.dto.TaskAiDecisionResponse;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+/**
+ * AI 結果のキャッシュ（サブタスク生成 / 状態判断）。
+ * キーは正規化したプロンプト入力 + モデル名 + プロンプトのバージョンの SHA-256。
+ * 上流から正常に得た結果だけを保存し、フォールバック結果は保存しない。
+ */
+@Component
+public class AiResultCache {
+
+    private final Cache<String, List<String>> subtasks;
+    private final Cache<String, TaskAiDecisionResponse> decisions;
+
+    public AiResultCache(
+            @Value("${app.ai.cache.subtasks.max-size:5000}") long subtaskMaxSize,
+            @Value("${app.ai.cache.subtasks.ttl:24h}") Duration subtaskTtl,
+            @Value("${app.ai.cache.decisions.max-size:10000}") long decisionMaxSize,
+            @Value("${app.ai.cache.decisions.ttl:1h}") Duration decisionTtl) {
+        this.subtasks = Caffeine.newBuilder().maximumSize(subtaskMaxSize)
+                .expireAfterWrite(subtaskTtl).recordStats().build();
+        this.decisions = Caffeine.newBuilder().maximumSize(decisionMaxSize)
+                .expireAfterWrite(decisionTtl).recordStats().build();
+    }
+
+    // 入力を正規化（前後の空白除去・連続空白の圧縮・null は空文字）して連結し、ハッシュ化
+    public static String key(Object... parts) {
+        StringBuilder sb = new StringBuilder();
+        for (Object part : parts) {
+            String value = part == null ? "" : part.toString().trim().replaceAll("\\s+", " ");
+            sb.append(value.length()).append(':').append(value).append('|');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(sb.toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public List<String> getSubtasks(String key) {
+        return subtasks.getIfPresent(key);
+    }
+
+    public void putSubtasks(String key, List<String> titles) {
+        subtasks.put(key, List.copyOf(titles));
+    }
+
+    // 呼び出し側で書き換えられてもキャッシュが汚れないようコピーを返す
+    public TaskAiDecisionResponse getDecision(String key) {
+        TaskAiDecisionResponse cached = decisions.getIfPresent(key);
+        return cached != null ? copy(cached) : null;
+    }
+
+    public void putDecision(String key, TaskAiDecisionResponse decision) {
+        decisions.put(key, copy(decision));
+    }
+
+    public CacheStats subtaskStats() {
+        return subtasks.stats();
+    }
+
+    public CacheStats decisionStats() {
+        return decisions.stats();
+    }
+
+    public Cache<String, List<String>> subtaskCache() {
+        return subtasks;
+    }
+
+    public Cache<String, TaskAiDecisionResponse> decisionCache() {
+        return decisions;
+    }
+
+    private static TaskAiDecisionResponse copy(TaskAiDecisionResponse source) {
+        TaskAiDecisionResponse copy = new TaskAiDecisionResponse();
+        copy.setNextState(source.getNextState());
+        copy.setReason(source.getReason());
+        return copy;
+    }
+}
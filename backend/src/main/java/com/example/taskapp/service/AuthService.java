@@ -2,13 +2,13 @@ package com.example.taskapp.service;
 
 import com.example.taskapp.dto.LoginRequest;
 import com.example.taskapp.dto.RegisterRequest;
+import com.example.taskapp.dto.UserResponse;
 import com.example.taskapp.entity.User;
+import com.example.taskapp.exception.ApiException;
 import com.example.taskapp.repository.UserRepository;
 import com.example.taskapp.security.JwtUtil;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.http.HttpStatus;
-import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDateTime;
 
@@ -29,7 +29,7 @@ public class AuthService {
     // 新規登録
     public String register(RegisterRequest request) {
         if (userRepository.findByEmail(request.getEmail()).isPresent()) {
-            throw new ResponseStatusException(HttpStatus.CONFLICT, "EMAIL_ALREADY_EXISTS");
+            throw ApiException.conflict("EMAIL_ALREADY_EXISTS");
         }
 
 
@@ -47,10 +47,10 @@ public class AuthService {
     // ログイン
     public String login(LoginRequest request) {
         User user = userRepository.findByEmail(request.getEmail()).orElseThrow(
-                () -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "INVALID_CREDENTIALS"));
+                () -> ApiException.unauthorized("INVALID_CREDENTIALS"));
 
         if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-            throw new ResponseStatusException(HttpStatus.UNAUTHORIZED, "INVALID_CREDENTIALS");
+            throw ApiException.unauthorized("INVALID_CREDENTIALS");
         }
 
 
@@ -58,9 +58,9 @@ public class AuthService {
     }
 
     // 自分の情報取得
-    public User getCurrentUser(String email) {
-        return userRepository.findByEmail(email).orElseThrow(
-                () -> new ResponseStatusException(HttpStatus.UNAUTHORIZED, "UNAUTHORIZED"));
+    public UserResponse getCurrentUser(String email) {
+        return userRepository.findResponseByEmail(email).orElseThrow(
+                () -> ApiException.unauthorized("UNAUTHORIZED"));
     }
 
 }
@@ -1,39 +1,66 @@
 package com.example.taskapp.service;
 
+import com.example.taskapp.client.OpenAiClient;
+import com.example.taskapp.client.OpenAiUnavailableException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.SignalType;
 
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 public class OpenAIService {
 
-    private final WebClient webClient;
-    private final ObjectMapper objectMapper;
+    private static final Logger log = LoggerFactory.getLogger(OpenAIService.class);
+
+    // モデル名とプロンプトのバージョン（変えたら AI 結果キャッシュも自動的に別キーになる）
+    public static final String SUBTASK_MODEL = "gpt-3.5-turbo";
+    public static final String SUBTASK_PROMPT_VERSION = "subtasks-v1";
+    public static final String CHAT_MODEL = "gpt-4o-mini";
 
-    @Value("${OPENAI_API_KEY:}")
-    private String apiKey;
+    // 応答からサブタスク名を取り出せなかったときの仮の名前（キャッシュしない）
+    private static final List<String> DEFAULT_SUBTASKS = List.of("サブタスク1", "サブタスク2", "サブタスク3");
+
+    private final OpenAiClient openAiClient;
+    private final AiResultCache aiResultCache;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
 
-    public OpenAIService() {
-        this.webClient = WebClient.builder().baseUrl("https://api.openai.com/v1")
-                .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE).build();
+    public OpenAIService(OpenAiClient openAiClient, AiResultCache aiResultCache,
+            MeterRegistry meterRegistry) {
+        this.openAiClient = openAiClient;
+        this.aiResultCache = aiResultCache;
         this.objectMapper = new ObjectMapper();
+        this.meterRegistry = meterRegistry;
     }
 
+    // 同期版（タイムアウト付きの OpenAiClient を待つだけなので、待ち時間は call-timeout が上限）
     public List<String> generateSubtasks(String taskTitle, String taskDescription) {
-        if (apiKey == null || apiKey.isEmpty()) {
-            System.err.println("警告: OpenAI API keyが設定されていません。デフォルトのサブタスクを生成します。");
-            throw new RuntimeException(
-                    "OpenAI API key is not configured. Please set OPENAI_API_KEY environment variable.");
+        return generateSubtasksAsync(taskTitle, taskDescription).block();
+    }
+
+    public Mono<List<String>> generateSubtasksAsync(String taskTitle, String taskDescription) {
+        // 同じタイトル・説明なら上流に問い合わせずキャッシュから返す
+        String cacheKey = AiResultCache.key(SUBTASK_MODEL, SUBTASK_PROMPT_VERSION, taskTitle,
+                taskDescription);
+        List<String> cached = aiResultCache.getSubtasks(cacheKey);
+        if (cached != null) {
+            return Mono.just(cached);
+        }
+
+        if (!openAiClient.isConfigured()) {
+            log.warn("OpenAI API keyが設定されていません。デフォルトのサブタスクを生成します。");
         }
 
         String prompt = String.format(
@@ -46,7 +73,7 @@ public class OpenAIService {
 
         // Jacksonを使ってJSONリクエストボディを構築
         ObjectNode requestBody = objectMapper.createObjectNode();
-        requestBody.put("model", "gpt-3.5-turbo");
+        requestBody.put("model", SUBTASK_MODEL);
         requestBody.put("temperature", 0.7);
         requestBody.put("max_tokens", 200);
 
@@ -65,15 +92,20 @@ public class OpenAIService {
 
         requestBody.set("messages", messages);
 
-        try {
-            String requestBodyJson = objectMapper.writeValueAsString(requestBody);
-
-            String response = webClient.post().uri("/chat/completions")
-                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey)
-                    .bodyValue(requestBodyJson).retrieve().bodyToMono(String.class).block();
+        return timed(openAiClient.chatCompletions(requestBody), "generateSubtasks", SUBTASK_MODEL)
+                .map(this::parseSubtasks)
+                // 仮の名前や空の結果をキャッシュすると、TTL の間ずっとそれを返してしまう
+                .doOnNext(titles -> {
+                    if (!titles.isEmpty() && titles != DEFAULT_SUBTASKS) {
+                        aiResultCache.putSubtasks(cacheKey, titles);
+                    }
+                });
+    }
 
-            JsonNode jsonNode = objectMapper.readTree(response);
-            String content = jsonNode.get("choices").get(0).get("message").get("content").asText();
+    // Chat Completions のレスポンスからサブタスク名を取り出す
+    public List<String> parseSubtasks(String response) {
+        try {
+            String content = extractContent(response);
 
             // JSON配列をパース
             content = content.trim();
@@ -97,7 +129,7 @@ public class OpenAIService {
                         subtasks.add(line);
                     }
                 }
-                return subtasks.size() > 0 ? subtasks : List.of("サブタスク1", "サブタスク2", "サブタスク3");
+                return subtasks.size() > 0 ? subtasks : DEFAULT_SUBTASKS;
             }
         } catch (Exception e) {
             throw new RuntimeException("Failed to generate subtasks: " + e.getMessage(), e);
@@ -105,30 +137,61 @@ public class OpenAIService {
     }
 
     public String chat(String prompt) {
-        try {
-            ObjectNode body = objectMapper.createObjectNode();
-            body.put("model", "gpt-4o-mini");
-            body.put("temperature", 0.2);
+        return chatAsync(prompt).block();
+    }
+
+    public Mono<String> chatAsync(String prompt) {
+        ObjectNode body = objectMapper.createObjectNode();
+        body.put("model", CHAT_MODEL);
+        body.put("temperature", 0.2);
 
-            ArrayNode messages = objectMapper.createArrayNode();
-            messages.add(objectMapper.createObjectNode().put("role", "system").put("content",
-                    "You return only strict JSON."));
-            messages.add(
-                    objectMapper.createObjectNode().put("role", "user").put("content", prompt));
-            body.set("messages", messages);
+        ArrayNode messages = objectMapper.createArrayNode();
+        messages.add(objectMapper.createObjectNode().put("role", "system").put("content",
+                "You return only strict JSON."));
+        messages.add(
+                objectMapper.createObjectNode().put("role", "user").put("content", prompt));
+        body.set("messages", messages);
+
+        return timed(openAiClient.chatCompletions(body), "chat", CHAT_MODEL).map(res -> {
+            try {
+                return extractContent(res);
+            } catch (Exception e) {
+                throw new OpenAiUnavailableException("OpenAI chat failed", e);
+            }
+        });
+    }
 
-            String res = webClient.post().uri("/chat/completions")
-                    .header(HttpHeaders.AUTHORIZATION, "Bearer " + apiKey).bodyValue(body)
-                    .retrieve().bodyToMono(String.class).block();
+    // 上流呼び出し1回ごとの所要時間（openai.requests）。キャッシュヒットは含まない
+    // outcome=success / error / cancelled、exception はフォールバックの原因（バルクヘッド満杯・ブレーカー OPEN・タイムアウト等）
+    // cancelled は呼び出し側の timeout や flatMap の打ち切りで購読が解除されたもの
+    private Mono<String> timed(Mono<String> call, String operation, String model) {
+        return Mono.defer(() -> {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            return call.doOnError(failure::set).doFinally(signal -> {
+                Throwable e = failure.get();
+                if (signal == SignalType.ON_ERROR && e != null) {
+                    sample.stop(timer(operation, model, "error",
+                            (e.getCause() != null ? e.getCause() : e).getClass().getSimpleName()));
+                } else if (signal == SignalType.CANCEL) {
+                    sample.stop(timer(operation, model, "cancelled", "none"));
+                } else {
+                    sample.stop(timer(operation, model, "success", "none"));
+                }
+            });
+        });
+    }
 
-            return objectMapper.readTree(res).get("choices").get(0).get("message").get("content")
-                    .asText();
+    private Timer timer(String operation, String model, String outcome, String exception) {
+        return Timer.builder("openai.requests").description("OpenAI Chat Completions 呼び出し")
+                .tag("operation", operation).tag("model", model).tag("outcome", outcome)
+                .tag("exception", exception).register(meterRegistry);
+    }
 
-        } catch (Exception e) {
-            throw new RuntimeException("OpenAI chat failed", e);
-        }
+    private String extractContent(String response) throws Exception {
+        return objectMapper.readTree(response).get("choices").get(0).get("message").get("content")
+                .asText();
     }
 
 
 }
-
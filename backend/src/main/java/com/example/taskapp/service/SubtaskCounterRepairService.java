@@ -0,0 +1,82 @@
+package com.example.taskapp.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.taskapp.cache.CacheInvalidation;
+import com.example.taskapp.repository.TaskRepository;
+
+/**
+ * Task のサブタスクカウンタ（subtaskTotal / subtaskCompleted）の修復（定期実行）。
+ * 通常は相対 UPDATE で整合しているが、カウンタ導入前のデータや障害時のずれを実件数で直す。
+ * タスクを id 順に batch-size 件ずつ区切り、ずれている行だけを所有者ごとに UPDATE する。
+ */
+@Service
+public class SubtaskCounterRepairService {
+
+    private final TaskRepository taskRepository;
+    private final TaskReadCache taskReadCache;
+    private final TaskChangeTracker changeTracker;
+    private final TransactionTemplate transactionTemplate;
+
+    private final boolean enabled;
+    private final int batchSize;
+
+    public SubtaskCounterRepairService(TaskRepository taskRepository, TaskReadCache taskReadCache,
+            TaskChangeTracker changeTracker, TransactionTemplate transactionTemplate,
+            @Value("${app.subtask-counters.repair.enabled:true}") boolean enabled,
+            @Value("${app.subtask-counters.repair.batch-size:1000}") int batchSize) {
+        this.taskRepository = taskRepository;
+        this.taskReadCache = taskReadCache;
+        this.changeTracker = changeTracker;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @Scheduled(initialDelayString = "${app.subtask-counters.repair.initial-delay:PT30S}",
+            fixedDelayString = "${app.subtask-counters.repair.interval:PT6H}")
+    public void runScheduled() {
+        if (enabled) {
+            run();
+        }
+    }
+
+    // 修復した行数を返す
+    public int run() {
+        int repaired = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = taskRepository.findIdsAfter(afterId, batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            long lastId = ids.get(ids.size() - 1);
+            repaired += repairRange(ids.get(0), lastId);
+            afterId = lastId;
+            if (ids.size() < batchSize) {
+                break;
+            }
+        }
+        return repaired;
+    }
+
+    // ずれのある所有者ごとに、バージョンを進めて同じトランザクションで修復する（差分同期に載せるため）
+    private int repairRange(long fromId, long toId) {
+        int repaired = 0;
+        for (Long ownerKey : taskRepository.findDriftedOwnerKeys(fromId, toId)) {
+            Long userId = CacheInvalidation.userId(ownerKey);
+            Integer count = transactionTemplate.execute(status -> taskRepository
+                    .repairSubtaskCounters(fromId, toId, ownerKey,
+                            changeTracker.nextVersion(userId), LocalDateTime.now()));
+            repaired += count;
+            taskReadCache.invalidateOwner(userId);
+        }
+        return repaired;
+    }
+}
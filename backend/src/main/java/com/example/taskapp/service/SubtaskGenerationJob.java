@@ -0,0 +1,81 @@
+package com.example.taskapp.service;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import com.example.taskapp.dto.SubtaskJobResponse;
+import com.example.taskapp.dto.SubtaskResponse;
+
+// サブタスク生成ジョブ1件分の状態
+public class SubtaskGenerationJob {
+
+    public enum Status {
+        PENDING, RUNNING, SUCCEEDED, FAILED
+    }
+
+    private final String id = UUID.randomUUID().toString();
+    private final Long taskId;
+    private final CompletableFuture<List<SubtaskResponse>> result = new CompletableFuture<>();
+    private volatile Status status = Status.PENDING;
+
+    public SubtaskGenerationJob(Long taskId) {
+        this.taskId = taskId;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public Long getTaskId() {
+        return taskId;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public boolean isFinished() {
+        return status == Status.SUCCEEDED || status == Status.FAILED;
+    }
+
+    // 完了（成功・失敗）時に通知を受ける
+    public CompletableFuture<List<SubtaskResponse>> result() {
+        return result;
+    }
+
+    void markRunning() {
+        status = Status.RUNNING;
+    }
+
+    void succeed(List<SubtaskResponse> subtasks) {
+        status = Status.SUCCEEDED;
+        result.complete(subtasks);
+    }
+
+    void fail(Throwable e) {
+        status = Status.FAILED;
+        result.completeExceptionally(e);
+    }
+
+    public SubtaskJobResponse toResponse() {
+        SubtaskJobResponse response = new SubtaskJobResponse();
+        response.setJobId(id);
+        response.setTaskId(taskId);
+        response.setStatus(status.name());
+        if (status == Status.SUCCEEDED) {
+            response.setSubtasks(result.join());
+        } else if (status == Status.FAILED) {
+            response.setError(result.handle((ok, e) -> e != null ? rootMessage(e) : null).join());
+        }
+        return response;
+    }
+
+    private static String rootMessage(Throwable e) {
+        Throwable cause = e;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause.getMessage();
+    }
+}
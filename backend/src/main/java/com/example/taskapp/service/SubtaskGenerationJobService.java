@@ -0,0 +1,164 @@
+package com.example.taskapp.service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import com.example.taskapp.dto.GenerateSubtasksRequest;
+import com.example.taskapp.entity.Task;
+import com.example.taskapp.exception.ApiException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * サブタスク生成の非同期ジョブ。
+ * POST はジョブIDを返すだけで、生成は専用のワーカープール（スレッド数・待ち行列とも上限あり）で行う。
+ * 同じタスク・同じ内容（タイトル・説明）の実行中ジョブがあれば新しく作らずそのジョブを返す。
+ * 仮想スレッドモード（spring.threads.virtual.enabled=true, Java 21）ではジョブごとに仮想スレッドを使い、
+ * 同時実行数・待ち数の上限はプールの代わりにセマフォで守る。
+ */
+@Service
+public class SubtaskGenerationJobService {
+
+    private final SubtaskService subtaskService;
+    private final TaskDecorator taskDecorator;
+
+    // プラットフォームスレッドモード：固定サイズのプール
+    private final ThreadPoolExecutor workers;
+
+    // 仮想スレッドモード：受付数（実行中 + 待ち）と同時実行数をセマフォで制限
+    private final SimpleAsyncTaskExecutor virtualWorkers;
+    private final Semaphore admission;
+    private final Semaphore running;
+
+    // 実行中ジョブ（taskId + タイトル + 説明 → ジョブ）。重複リクエストをまとめるため
+    // 内容が違うリクエストに別の内容の結果を返さないよう、キーに内容も含める
+    private final ConcurrentMap<String, SubtaskGenerationJob> inFlight = new ConcurrentHashMap<>();
+
+    // 完了済みも含めた全ジョブ（結果取得用。一定時間で消える）
+    private final Cache<String, SubtaskGenerationJob> jobs;
+
+    public SubtaskGenerationJobService(SubtaskService subtaskService,
+            @Value("${app.ai.jobs.workers:4}") int workerCount,
+            @Value("${app.ai.jobs.queue-capacity:100}") int queueCapacity,
+            @Value("${app.ai.jobs.retention:10m}") Duration retention,
+            Environment environment, TaskDecorator taskDecorator) {
+        this.subtaskService = subtaskService;
+        this.taskDecorator = taskDecorator;
+        if (Threading.VIRTUAL.isActive(environment)) {
+            this.workers = null;
+            this.virtualWorkers = new SimpleAsyncTaskExecutor("subtask-job-");
+            this.virtualWorkers.setVirtualThreads(true);
+            this.virtualWorkers.setTaskTerminationTimeout(30_000);
+            this.admission = new Semaphore(workerCount + queueCapacity);
+            this.running = new Semaphore(workerCount);
+        } else {
+            this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L,
+                    TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(queueCapacity),
+                    new CustomizableThreadFactory("subtask-job-"));
+            this.virtualWorkers = null;
+            this.admission = null;
+            this.running = null;
+        }
+        this.jobs = Caffeine.newBuilder().expireAfterWrite(retention).build();
+    }
+
+    public SubtaskGenerationJob submit(Task task, GenerateSubtasksRequest request) {
+        String key = dedupKey(task, request);
+        SubtaskGenerationJob job = new SubtaskGenerationJob(task.getId());
+        // 重複リクエストにジョブIDを返した時点で GET /jobs/{id} から見えるよう、先に登録する
+        jobs.put(job.getId(), job);
+        SubtaskGenerationJob existing = inFlight.putIfAbsent(key, job);
+        if (existing != null) {
+            jobs.invalidate(job.getId());
+            return existing;
+        }
+
+        try {
+            // 呼び出し元の requestId などをジョブのログにも引き継ぐ
+            execute(taskDecorator.decorate(() -> run(job, key, task, request)));
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, job);
+            jobs.invalidate(job.getId());
+            throw ApiException.serviceUnavailable("AI_JOB_QUEUE_FULL");
+        }
+        return job;
+    }
+
+    public Optional<SubtaskGenerationJob> find(String jobId) {
+        return Optional.ofNullable(jobs.getIfPresent(jobId));
+    }
+
+    // 生成に使うタイトル・説明（未指定ならタスクの値。SubtaskService.generateAndSave と同じ）で区別する
+    private static String dedupKey(Task task, GenerateSubtasksRequest request) {
+        String title = request.getTaskTitle() != null ? request.getTaskTitle() : task.getTitle();
+        String description = request.getTaskDescription() != null ? request.getTaskDescription()
+                : task.getDescription();
+        return AiResultCache.key(task.getId(), title, description);
+    }
+
+    private void execute(Runnable command) {
+        if (workers != null) {
+            workers.execute(command);
+            return;
+        }
+        if (!admission.tryAcquire()) {
+            throw new RejectedExecutionException("subtask job queue is full");
+        }
+        virtualWorkers.execute(() -> {
+            try {
+                // 待っている間は仮想スレッドがキャリアを手放すので、待ち数分のスレッドを抱えても安い
+                running.acquireUninterruptibly();
+                try {
+                    command.run();
+                } finally {
+                    running.release();
+                }
+            } finally {
+                admission.release();
+            }
+        });
+    }
+
+    private void run(SubtaskGenerationJob job, String key, Task task,
+            GenerateSubtasksRequest request) {
+        job.markRunning();
+        try {
+            job.succeed(subtaskService.generateAndSave(task, request));
+        } catch (Throwable e) {
+            // Error でもジョブは必ず完了させる（待っている SSE・ポーリングを止めない）
+            job.fail(e);
+            if (e instanceof Error error) {
+                throw error;
+            }
+        } finally {
+            inFlight.remove(key, job);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        if (workers != null) {
+            workers.shutdown();
+            workers.awaitTermination(30, TimeUnit.SECONDS);
+        } else {
+            virtualWorkers.close();
+        }
+    }
+}
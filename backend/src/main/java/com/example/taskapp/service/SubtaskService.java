@@ -0,0 +1,143 @@
+package com.example.taskapp.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.taskapp.dto.GenerateSubtasksRequest;
+import com.example.taskapp.dto.SubtaskResponse;
+import com.example.taskapp.entity.Subtask;
+import com.example.taskapp.entity.Task;
+import com.example.taskapp.entity.User;
+import com.example.taskapp.repository.SubtaskRepository;
+import com.example.taskapp.repository.TaskRepository;
+
+@Service
+public class SubtaskService {
+
+    private static final Logger log = LoggerFactory.getLogger(SubtaskService.class);
+
+    private final OpenAIService openAIService;
+    private final SubtaskRepository subtaskRepository;
+    private final TaskRepository taskRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TaskReadCache taskReadCache;
+    private final TaskChangeTracker changeTracker;
+
+    public SubtaskService(OpenAIService openAIService, SubtaskRepository subtaskRepository,
+            TaskRepository taskRepository, TransactionTemplate transactionTemplate,
+            TaskReadCache taskReadCache, TaskChangeTracker changeTracker) {
+        this.openAIService = openAIService;
+        this.subtaskRepository = subtaskRepository;
+        this.taskRepository = taskRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.taskReadCache = taskReadCache;
+        this.changeTracker = changeTracker;
+    }
+
+    // タスクのサブタスク一覧（TaskReadCache 経由）
+    public List<SubtaskResponse> findByTaskId(Long taskId) {
+        return taskReadCache.findSubtasks(taskId);
+    }
+
+    // AIでサブタスクを生成して保存（同期 API / 非同期ジョブ共通）
+    // AI 呼び出し中に DB 接続を握らないよう、トランザクションは保存（saveAll + カウンタ更新）だけに限定する
+    public List<SubtaskResponse> generateAndSave(Task task, GenerateSubtasksRequest request) {
+        String taskTitle = request.getTaskTitle() != null ? request.getTaskTitle() : task.getTitle();
+        String taskDescription = request.getTaskDescription() != null
+                ? request.getTaskDescription()
+                : task.getDescription();
+
+        // OpenAI APIでサブタスクを生成
+        List<String> subtaskTitles;
+        try {
+            subtaskTitles = openAIService.generateSubtasks(taskTitle, taskDescription);
+        } catch (RuntimeException e) {
+            // OpenAI APIエラーの場合、デフォルトのサブタスクを生成
+            subtaskTitles = List.of(
+                taskTitle + "の準備",
+                taskTitle + "の実行",
+                taskTitle + "の確認"
+            );
+            // 想定内のフォールバック（バルクヘッド満杯・ブレーカー OPEN 等）なのでスタックは DEBUG のみ
+            log.warn("OpenAI unavailable, using default subtasks: {}", e.getMessage());
+            log.debug("OpenAI error detail", e);
+        }
+
+        // サブタスクを保存
+        List<Subtask> subtasks = subtaskTitles.stream()
+                .map(title -> {
+                    Subtask subtask = new Subtask();
+                    subtask.setTitle(title);
+                    subtask.setCompleted(false);
+                    subtask.setTask(task);
+                    return subtask;
+                })
+                .collect(Collectors.toList());
+
+        // 保存とタスク側カウンタ・変更バージョンの更新を同じトランザクションで行う
+        List<Subtask> saved = transactionTemplate.execute(status -> {
+            long version = changeTracker.nextVersion(ownerId(task.getUser()));
+            List<Subtask> result = subtaskRepository.saveAll(subtasks);
+            taskRepository.adjustSubtaskCounters(task.getId(), result.size(), 0, version,
+                    LocalDateTime.now());
+            taskReadCache.invalidateTask(ownerId(task.getUser()), task.getId());
+            return result;
+        });
+
+        // レスポンスに変換
+        return saved.stream()
+                .map(SubtaskResponse::from)
+                .collect(Collectors.toList());
+    }
+
+    // サブタスク更新（完了フラグが実際に切り替わったときだけ完了数を増減する）
+    // owner はタスクの所有者（変更バージョン・キャッシュ無効化用。ゲストなら null）
+    @Transactional
+    public SubtaskResponse update(Subtask subtask, String title, boolean completed, User owner) {
+        long version = changeTracker.nextVersion(ownerId(owner));
+        // 読み込み済みのエンティティは merge しない（UPDATE 文だけで書く）
+        subtaskRepository.updateTitle(subtask.getId(), title);
+        int completedDelta = 0;
+        if (subtaskRepository.updateCompleted(subtask.getId(), completed) > 0) {
+            completedDelta = completed ? 1 : -1;
+        }
+        // タイトルだけの変更でもタスクの変更バージョンは進める
+        taskRepository.adjustSubtaskCounters(subtask.getTask().getId(), 0, completedDelta, version,
+                LocalDateTime.now());
+        subtask.setTitle(title);
+        subtask.setCompleted(completed);
+        taskReadCache.invalidateTask(ownerId(owner), subtask.getTask().getId());
+        return SubtaskResponse.from(subtask);
+    }
+
+    // サブタスク削除（実際に削除できたときだけ件数を減らす）
+    // 完了数は呼び出し元が読んだ subtask.isCompleted() ではなく、どちらの条件で消えたかで決める
+    // （読んだ後に完了フラグが切り替えられてもカウンタがずれない）
+    @Transactional
+    public void delete(Subtask subtask, User owner) {
+        // 所有者のバージョン行のロックを先に取る（他の更新系とロックの順序を揃える）
+        long version = changeTracker.nextVersion(ownerId(owner));
+        int completedDelta;
+        if (subtaskRepository.deleteByIdAndCompleted(subtask.getId(), true) > 0) {
+            completedDelta = -1;
+        } else if (subtaskRepository.deleteByIdAndCompleted(subtask.getId(), false) > 0) {
+            completedDelta = 0;
+        } else {
+            return;
+        }
+        taskRepository.adjustSubtaskCounters(subtask.getTask().getId(), -1, completedDelta,
+                version, LocalDateTime.now());
+        taskReadCache.invalidateTask(ownerId(owner), subtask.getTask().getId());
+    }
+
+    private static Long ownerId(User owner) {
+        return owner != null ? owner.getId() : null;
+    }
+}
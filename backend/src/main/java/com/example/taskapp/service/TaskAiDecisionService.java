@@ -1,56 +1,345 @@
 package com.example.taskapp.service;
 
+import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.example.taskapp.dto.TaskAiDecisionBatchItem;
 import com.example.taskapp.dto.TaskAiDecisionResponse;
 import com.example.taskapp.entity.AiDecisionLog;
 import com.example.taskapp.entity.Task;
 import com.example.taskapp.entity.TaskState;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.example.taskapp.dto.TaskAiDecisionOpenAiResponse;
+import com.example.taskapp.exception.ApiException;
 import com.example.taskapp.repository.AiDecisionLogRepository;
 import java.util.List;
 
+import io.github.resilience4j.ratelimiter.RateLimiter;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
 @Service
 public class TaskAiDecisionService {
 
+    private static final Logger log = LoggerFactory.getLogger(TaskAiDecisionService.class);
+
+    // プロンプトのバージョン（buildPrompt / buildBatchPrompt を変えたら上げる。AI 結果キャッシュのキーに含まれる）
+    // 単体と一括はプロンプトが違うので、キャッシュも別々に持つ
+    private static final String PROMPT_VERSION = "decision-v1";
+    private static final String BATCH_PROMPT_VERSION = "decision-batch-v1";
+
+    // 一括判断のプロンプトで1タスクあたりに見込む固定トークン数（ラベル・JSON 等）
+    private static final int BATCH_TOKENS_PER_TASK_OVERHEAD = 30;
+    private static final int BATCH_PROMPT_BASE_TOKENS = 200;
+
     private final OpenAIService openAIService;
     private final AiDecisionLogRepository aiDecisionLogRepository;
+    private final AiDecisionLogWriter aiDecisionLogWriter;
+    private final AiResultCache aiResultCache;
+    private final TaskEventHub taskEventHub;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final MeterRegistry meterRegistry;
+
+    private final int batchSliceSize;
+    private final int batchMaxPromptTokens;
+    private final int batchMaxTasksPerCall;
+    private final int batchConcurrency;
+    // 1リクエストで AI に送る件数の上限と、全スライス合計の待ち時間（リクエストスレッドを長く塞がない）
+    private final int batchMaxAiTasks;
+    private final Duration batchDeadline;
+
+    // ゲストの一括判断（ログイン不要なので AI に送る件数と呼び出し頻度を絞る）
+    private final int publicMaxAiTasks;
+    private final RateLimiter publicRateLimiter;
 
     public TaskAiDecisionService(OpenAIService openAIService,
-            AiDecisionLogRepository aiDecisionLogRepository) {
+            AiDecisionLogRepository aiDecisionLogRepository,
+            AiDecisionLogWriter aiDecisionLogWriter, AiResultCache aiResultCache,
+            TaskEventHub taskEventHub, MeterRegistry meterRegistry,
+            @Value("${app.ai.batch.slice-size:100}") int batchSliceSize,
+            @Value("${app.ai.batch.max-prompt-tokens:3000}") int batchMaxPromptTokens,
+            @Value("${app.ai.batch.max-tasks-per-call:20}") int batchMaxTasksPerCall,
+            @Value("${app.ai.batch.concurrency:4}") int batchConcurrency,
+            @Value("${app.ai.batch.max-ai-tasks:200}") int batchMaxAiTasks,
+            @Value("${app.ai.batch.deadline:60s}") Duration batchDeadline,
+            @Value("${app.ai.batch.public.max-ai-tasks:20}") int publicMaxAiTasks,
+            @Value("${app.ai.batch.public.rate-limit:10}") int publicRateLimit,
+            @Value("${app.ai.batch.public.rate-period:1m}") Duration publicRatePeriod) {
         this.openAIService = openAIService;
         this.aiDecisionLogRepository = aiDecisionLogRepository;
+        this.aiDecisionLogWriter = aiDecisionLogWriter;
+        this.aiResultCache = aiResultCache;
+        this.taskEventHub = taskEventHub;
+        this.meterRegistry = meterRegistry;
+        this.batchSliceSize = batchSliceSize;
+        this.batchMaxPromptTokens = batchMaxPromptTokens;
+        this.batchMaxTasksPerCall = batchMaxTasksPerCall;
+        this.batchConcurrency = batchConcurrency;
+        this.batchMaxAiTasks = batchMaxAiTasks;
+        this.batchDeadline = batchDeadline;
+        this.publicMaxAiTasks = publicMaxAiTasks;
+        // ノード単位の上限（待たずに断る）
+        this.publicRateLimiter = RateLimiter.of("ai-public-batch", RateLimiterConfig.custom()
+                .limitForPeriod(publicRateLimit).limitRefreshPeriod(publicRatePeriod)
+                .timeoutDuration(Duration.ZERO).build());
     }
 
     public TaskAiDecisionResponse decide(Task task) {
 
         TaskAiDecisionResponse res;
 
+        // 判断材料が変わっていなければキャッシュ済みの判断を使う
+        String cacheKey = cacheKey(task, PROMPT_VERSION);
+
         try {
-            String prompt = buildPrompt(task);
-            String raw = openAIService.chat(prompt);
+            res = aiResultCache.getDecision(cacheKey);
 
-            TaskAiDecisionOpenAiResponse ai =
-                    objectMapper.readValue(raw, TaskAiDecisionOpenAiResponse.class);
+            if (res == null) {
+                String prompt = buildPrompt(task);
+                String raw = openAIService.chat(prompt);
 
-            res = new TaskAiDecisionResponse();
-            res.setNextState(ai.getNextState());
-            res.setReason(ai.getReason());
+                res = parseDecision(raw);
+
+                if (res.getNextState() != null) {
+                    aiResultCache.putDecision(cacheKey, res);
+                }
+            }
 
         } catch (Exception e) {
             // AI失敗時も必ず結果を返す
-            res = fallback(task);
+            res = fallback(task, "single", "error");
         }
 
         // ★ 成功・失敗に関わらず必ずログ保存
         saveLog(task, res);
+        taskEventHub.publishDecision(task);
 
         return res;
     }
 
+    // ==========================================
+    // 一括判断：トークン上限に収まる範囲で複数タスクを1回の AI 呼び出しにまとめる
+    // ==========================================
+    // AI に送るのは max-ai-tasks 件まで。残りはルールベース
+    public List<TaskAiDecisionBatchItem> decideAll(List<Task> tasks) {
+        return decideAll(tasks, batchMaxAiTasks);
+    }
+
+    // ゲスト用：呼び出し頻度を超えたら 429。AI に送るのは max-ai-tasks 件までで、残りはルールベース
+    public List<TaskAiDecisionBatchItem> decideAllPublic(List<Task> tasks) {
+        if (!publicRateLimiter.acquirePermission()) {
+            throw ApiException.tooManyRequests("AI_RATE_LIMITED");
+        }
+        return decideAll(tasks, publicMaxAiTasks);
+    }
+
+    private List<TaskAiDecisionBatchItem> decideAll(List<Task> tasks, int maxAiTasks) {
+        Map<Long, TaskAiDecisionBatchItem> results = new HashMap<>();
+        List<Task> pending = new ArrayList<>();
+
+        for (Task task : tasks) {
+            TaskAiDecisionResponse cached =
+                    aiResultCache.getDecision(cacheKey(task, BATCH_PROMPT_VERSION));
+            if (cached != null) {
+                results.put(task.getId(), toBatchItem(task, cached, false));
+            } else if (task.getState() == TaskState.DONE) {
+                // 完了済みは AI に聞くまでもなく DONE のまま
+                results.put(task.getId(),
+                        toBatchItem(task, fallback(task, "batch", "done"), true));
+            } else if (pending.size() >= maxAiTasks) {
+                results.put(task.getId(),
+                        toBatchItem(task, fallback(task, "batch", "limit"), true));
+            } else {
+                pending.add(task);
+            }
+        }
+
+        // slice-size 件ずつ順に問い合わせる（同時に抱えるプロンプト・応答を抑える）。
+        // 全スライスで deadline を使い切ったら、残りは問い合わせない
+        Map<Long, TaskAiDecisionResponse> aiResults = new ConcurrentHashMap<>();
+        long deadline = System.nanoTime() + batchDeadline.toNanos();
+        for (int from = 0; from < pending.size(); from += batchSliceSize) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                break;
+            }
+            askBatch(pending.subList(from, Math.min(from + batchSliceSize, pending.size())),
+                    Duration.ofNanos(remaining), aiResults);
+        }
+        boolean expired = deadline - System.nanoTime() <= 0;
+
+        for (Task task : pending) {
+            TaskAiDecisionResponse ai = aiResults.get(task.getId());
+            if (ai != null) {
+                aiResultCache.putDecision(cacheKey(task, BATCH_PROMPT_VERSION), ai);
+                results.put(task.getId(), toBatchItem(task, ai, false));
+            } else {
+                // AI の回答に含まれなかった / 失敗した / 時間切れのタスクだけルールベースで判断
+                results.put(task.getId(), toBatchItem(task,
+                        fallback(task, "batch", expired ? "timeout" : "missing"), true));
+            }
+        }
+
+        List<TaskAiDecisionBatchItem> ordered = tasks.stream()
+                .map(task -> results.get(task.getId())).toList();
+        saveLogs(ordered);
+        taskEventHub.publishDecisions(tasks);
+        return ordered;
+    }
+
+    // チャンクごとの AI 呼び出しは並行実行（同時実行数は OpenAiClient のバルクヘッドでも制限される）
+    // 回答はチャンクごとに解析し、そのチャンクで聞いた taskId だけを採る（別チャンクの回答を上書きさせない）
+    // 届いたチャンクから results に入れるので、timeout で打ち切っても返ってきた分は使える
+    private void askBatch(List<Task> tasks, Duration timeout,
+            Map<Long, TaskAiDecisionResponse> results) {
+        Flux.fromIterable(chunk(tasks))
+                .flatMap(chunk -> openAIService.chatAsync(buildBatchPrompt(chunk))
+                        .map(raw -> onlyAsked(parseBatchResponse(raw), chunk))
+                        .onErrorResume(e -> Mono.just(Map.of())), batchConcurrency)
+                .doOnNext(results::putAll)
+                .then()
+                .timeout(timeout)
+                .onErrorResume(e -> Mono.empty())
+                .block();
+    }
+
+    // 推定トークン数（文字数 / 2、日本語を考慮して多めに見積もる）と件数上限でタスクを分割
+    private List<List<Task>> chunk(List<Task> tasks) {
+        List<List<Task>> chunks = new ArrayList<>();
+        List<Task> current = new ArrayList<>();
+        int tokens = BATCH_PROMPT_BASE_TOKENS;
+
+        for (Task task : tasks) {
+            int taskTokens = estimateTokens(task);
+            if (!current.isEmpty() && (current.size() >= batchMaxTasksPerCall
+                    || tokens + taskTokens > batchMaxPromptTokens)) {
+                chunks.add(current);
+                current = new ArrayList<>();
+                tokens = BATCH_PROMPT_BASE_TOKENS;
+            }
+            current.add(task);
+            tokens += taskTokens;
+        }
+        if (!current.isEmpty()) {
+            chunks.add(current);
+        }
+        return chunks;
+    }
+
+    private static Map<Long, TaskAiDecisionResponse> onlyAsked(
+            Map<Long, TaskAiDecisionResponse> parsed, List<Task> chunk) {
+        Map<Long, TaskAiDecisionResponse> asked = new HashMap<>();
+        for (Task task : chunk) {
+            TaskAiDecisionResponse res = parsed.get(task.getId());
+            if (res != null) {
+                asked.put(task.getId(), res);
+            }
+        }
+        return asked;
+    }
+
+    private static int estimateTokens(Task task) {
+        // dueDate（yyyy-MM-dd）と currentState の分として 20 文字を加算
+        int chars = length(task.getTitle()) + length(task.getPriority()) + 20;
+        return BATCH_TOKENS_PER_TASK_OVERHEAD + chars / 2;
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    String buildBatchPrompt(List<Task> tasks) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("You are a task management AI.\n\n").append("Return ONLY valid JSON.\n\n")
+                .append("Allowed nextState values: PENDING, EXECUTING, DONE\n\n")
+                .append("Tasks:\n");
+        for (Task task : tasks) {
+            sb.append(String.format("- taskId: %d, title: %s, priority: %s, dueDate: %s, currentState: %s\n",
+                    task.getId(), task.getTitle(), task.getPriority(), task.getDueDate(),
+                    task.getState()));
+        }
+        sb.append("\nRules:\n").append("- If already DONE, keep DONE.\n")
+                .append("- Prefer EXECUTING if priority is high and dueDate is near.\n")
+                .append("- Provide a concise Japanese reason.\n")
+                .append("- Return exactly one decision per taskId.\n\n")
+                .append("Output format:\n")
+                .append("{ \"decisions\": [ { \"taskId\": 1, \"nextState\": \"EXECUTING\", \"reason\": \"理由\" } ] }");
+        return sb.toString();
+    }
+
+    // 一括判断のレスポンスを taskId ごとに分解（不正な要素は無視してフォールバックに任せる）
+    Map<Long, TaskAiDecisionResponse> parseBatchResponse(String raw) {
+        Map<Long, TaskAiDecisionResponse> parsed = new LinkedHashMap<>();
+        try {
+            JsonNode decisions = objectMapper.readTree(raw).path("decisions");
+            for (JsonNode node : decisions) {
+                if (!node.path("taskId").canConvertToLong()) {
+                    continue;
+                }
+                try {
+                    TaskAiDecisionResponse res = new TaskAiDecisionResponse();
+                    res.setNextState(TaskState.valueOf(node.path("nextState").asText()));
+                    res.setReason(node.path("reason").asText());
+                    parsed.put(node.path("taskId").asLong(), res);
+                } catch (IllegalArgumentException e) {
+                    // 不正な nextState
+                }
+            }
+        } catch (Exception e) {
+            // JSON として読めない場合は全件フォールバック
+        }
+        return parsed;
+    }
+
+    private static TaskAiDecisionBatchItem toBatchItem(Task task, TaskAiDecisionResponse res,
+            boolean fallback) {
+        TaskAiDecisionBatchItem item = new TaskAiDecisionBatchItem();
+        item.setTaskId(task.getId());
+        item.setNextState(res.getNextState());
+        item.setReason(res.getReason());
+        item.setFallback(fallback);
+        return item;
+    }
+
+    private void saveLogs(List<TaskAiDecisionBatchItem> items) {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            List<AiDecisionLog> logs = items.stream().map(item -> {
+                AiDecisionLog log = new AiDecisionLog();
+                log.setTaskId(item.getTaskId());
+                log.setSuggestedState(item.getNextState());
+                log.setReason(item.getReason());
+                log.setCreatedAt(now);
+                return log;
+            }).toList();
+
+            aiDecisionLogWriter.appendAll(logs);
+        } catch (Exception e) {
+            // ログ保存失敗では業務を止めない
+            log.warn("Failed to save {} AI decision logs", items.size(), e);
+        }
+    }
+
+    private static String cacheKey(Task task, String promptVersion) {
+        return AiResultCache.key(OpenAIService.CHAT_MODEL, promptVersion, task.getTitle(),
+                task.getDescription(), task.getPriority(), task.getDueDate(), task.getState());
+    }
+
     private void saveLog(Task task, TaskAiDecisionResponse res) {
         try {
             AiDecisionLog log = new AiDecisionLog();
@@ -59,13 +348,26 @@ public class TaskAiDecisionService {
             log.setReason(res.getReason());
             log.setCreatedAt(LocalDateTime.now());
 
-            aiDecisionLogRepository.save(log);
+            // 保存はライトビハインド（リクエストスレッドでは INSERT しない）
+            aiDecisionLogWriter.append(log);
         } catch (Exception e) {
             // ログ保存失敗では業務を止めない（実務的に重要）
+            log.warn("Failed to save AI decision log for task {}", task.getId(), e);
         }
     }
 
-    private String buildPrompt(Task task) {
+    // 単体判断のレスポンスを変換
+    TaskAiDecisionResponse parseDecision(String raw) throws IOException {
+        TaskAiDecisionOpenAiResponse ai =
+                objectMapper.readValue(raw, TaskAiDecisionOpenAiResponse.class);
+
+        TaskAiDecisionResponse res = new TaskAiDecisionResponse();
+        res.setNextState(ai.getNextState());
+        res.setReason(ai.getReason());
+        return res;
+    }
+
+    String buildPrompt(Task task) {
         return String.format(
                 "You are a task management AI.\n\n" + "Return ONLY valid JSON.\n\n"
                         + "Allowed nextState values: PENDING, EXECUTING, DONE\n\n" + "Task:\n"
@@ -77,7 +379,11 @@ public class TaskAiDecisionService {
                 task.getTitle(), task.getPriority(), task.getDueDate(), task.getState());
     }
 
-    private TaskAiDecisionResponse fallback(Task task) {
+    // mode=single / batch、reason=error（AI 失敗）/ missing（一括の回答漏れ）/ done（完了済みで AI 不要）
+    private TaskAiDecisionResponse fallback(Task task, String mode, String reason) {
+        Counter.builder("ai.decision.fallback").description("ルールベース判断にフォールバックした件数")
+                .tag("mode", mode).tag("reason", reason).register(meterRegistry).increment();
+
         TaskAiDecisionResponse res = new TaskAiDecisionResponse();
 
         if (task.getState() == TaskState.PENDING && "high".equals(task.getPriority())) {
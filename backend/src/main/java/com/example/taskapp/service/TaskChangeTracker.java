@@ -0,0 +1,83 @@
+package com.example.taskapp.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.example.taskapp.cache.CacheInvalidation;
+import com.example.taskapp.entity.TaskTombstone;
+import com.example.taskapp.repository.TaskSetVersionRepository;
+import com.example.taskapp.repository.TaskTombstoneRepository;
+
+/**
+ * 所有者ごとのタスク集合のバージョン管理（ETag / 差分同期用）。
+ * タスク・サブタスクを変更するトランザクションの中で nextVersion を呼び、
+ * 返ったバージョンを tasks.change_version（削除なら task_tombstones）に書く。
+ * バージョン行の更新ロックはコミットまで残るので、同じ所有者の変更はバージョン順にコミットされる。
+ *
+ * 削除記録は保持期間（tombstone-retention）を過ぎたら消す。
+ * それより古いバージョンからの差分要求には全件を返す（pruned_version で判定）。
+ */
+@Service
+public class TaskChangeTracker {
+
+    private final TaskSetVersionRepository versionRepository;
+    private final TaskTombstoneRepository tombstoneRepository;
+
+    private final boolean pruneEnabled;
+    private final Duration tombstoneRetention;
+
+    public TaskChangeTracker(TaskSetVersionRepository versionRepository,
+            TaskTombstoneRepository tombstoneRepository,
+            @Value("${app.task-sync.prune.enabled:true}") boolean pruneEnabled,
+            @Value("${app.task-sync.tombstone-retention:30d}") Duration tombstoneRetention) {
+        this.versionRepository = versionRepository;
+        this.tombstoneRepository = tombstoneRepository;
+        this.pruneEnabled = pruneEnabled;
+        this.tombstoneRetention = tombstoneRetention;
+    }
+
+    // 所有者のバージョンを +1 して返す（呼び出し側のトランザクションで実行する）
+    @Transactional(propagation = Propagation.MANDATORY)
+    public long nextVersion(Long userId) {
+        long ownerKey = CacheInvalidation.ownerKey(userId);
+        if (versionRepository.increment(ownerKey) == 0) {
+            versionRepository.insertIfAbsent(ownerKey);
+            versionRepository.increment(ownerKey);
+        }
+        return versionRepository.findVersion(ownerKey).orElseThrow();
+    }
+
+    // 削除したタスクを記録する（nextVersion で得たバージョンで）
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordDeletion(Long userId, Long taskId, long version) {
+        TaskTombstone tombstone = new TaskTombstone();
+        tombstone.setTaskId(taskId);
+        tombstone.setOwnerKey(CacheInvalidation.ownerKey(userId));
+        tombstone.setVersion(version);
+        tombstone.setDeletedAt(LocalDateTime.now());
+        tombstoneRepository.save(tombstone);
+    }
+
+    @Scheduled(initialDelayString = "${app.task-sync.prune.initial-delay:PT2M}",
+            fixedDelayString = "${app.task-sync.prune.interval:PT6H}")
+    public void runScheduled() {
+        if (pruneEnabled) {
+            pruneTombstones();
+        }
+    }
+
+    // 保持期間を過ぎた削除記録を消す（先に所有者ごとの pruned_version を進める）。削除件数を返す
+    // pruned_version はキャッシュせず差分要求のたびに読むので、キャッシュの無効化は要らない
+    @Transactional
+    public int pruneTombstones() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(tombstoneRetention);
+        versionRepository.markPruned(cutoff);
+        return tombstoneRepository.deleteOlderThan(cutoff);
+    }
+}
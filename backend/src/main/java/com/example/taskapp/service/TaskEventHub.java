@@ -0,0 +1,275 @@
+package com.example.taskapp.service;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.example.taskapp.cache.CacheInvalidation;
+import com.example.taskapp.cache.CacheInvalidationBus;
+import com.example.taskapp.dto.TaskEvent;
+import com.example.taskapp.entity.Task;
+import com.example.taskapp.exception.ApiException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * タスクのライブ更新（SSE）の配信。
+ * 所有者（ユーザー / ゲストは全員で1つ）ごとに接続を持ち、CacheInvalidationBus に届いた変更通知を
+ * TaskEvent にして送る。バスは全ノードに届くので、別ノードでの変更も自ノードの接続に流れる。
+ *
+ * 接続ごとに上限つきのキューを持ち、送信は専用のスレッドプールで行う（通知元のスレッドは積むだけ）。
+ * キューに同じイベントが残っていれば積まない。それでも溢れた接続は遅いとみなして切断する
+ * （クライアントは再接続時に差分同期で追いつく）。1つの接続への送信は同時に1スレッドだけが行う。
+ */
+@Component
+public class TaskEventHub {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskEventHub.class);
+
+    // キープアライブ（SSE のコメント行として送る。プロキシのアイドル切断よけ）
+    private static final TaskEvent HEARTBEAT = new TaskEvent("heartbeat", null);
+    private static final TaskEvent READY = new TaskEvent(TaskEvent.READY, null);
+    private static final TaskEvent RESYNC = new TaskEvent(TaskEvent.RESYNC, null);
+
+    private static final class Subscriber {
+        final long ownerKey;
+        final SseEmitter emitter;
+        final BlockingQueue<TaskEvent> queue;
+        // 送信タスクを投入済みか（1接続につき同時に1つだけ）
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        final AtomicBoolean completed = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        Subscriber(long ownerKey, SseEmitter emitter, int bufferSize) {
+            this.ownerKey = ownerKey;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+
+    private final ConcurrentMap<Long, Set<Subscriber>> topics = new ConcurrentHashMap<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final CacheInvalidationBus bus;
+    private final ExecutorService senders;
+    private final Counter evicted;
+
+    private final int bufferSize;
+    private final Duration timeout;
+    private final int maxSubscribers;
+
+    public TaskEventHub(CacheInvalidationBus bus, MeterRegistry meterRegistry,
+            @Value("${app.task-events.buffer-size:64}") int bufferSize,
+            @Value("${app.task-events.timeout:30m}") Duration timeout,
+            @Value("${app.task-events.max-subscribers:10000}") int maxSubscribers,
+            @Value("${app.task-events.sender-threads:4}") int senderThreads) {
+        this.bus = bus;
+        this.bufferSize = bufferSize;
+        this.timeout = timeout;
+        this.maxSubscribers = maxSubscribers;
+        this.senders = Executors.newFixedThreadPool(senderThreads,
+                new CustomizableThreadFactory("task-events-"));
+
+        Gauge.builder("task.events.subscribers", subscriberCount, AtomicInteger::get)
+                .description("ライブ更新の接続数").register(meterRegistry);
+        this.evicted = Counter.builder("task.events.evicted")
+                .description("キューが溢れて切断した接続数").register(meterRegistry);
+
+        bus.subscribe(this::onChange);
+    }
+
+    // userId が null ならゲストのタスクを購読する
+    public SseEmitter subscribe(Long userId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            throw ApiException.serviceUnavailable("TOO_MANY_EVENT_STREAMS");
+        }
+
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Subscriber subscriber = new Subscriber(CacheInvalidation.ownerKey(userId), emitter,
+                bufferSize);
+        // 切断・タイムアウトしたら登録を外す（送信スレッドから complete し直さない）
+        emitter.onCompletion(() -> close(subscriber));
+        emitter.onError(e -> close(subscriber));
+        emitter.onTimeout(() -> {
+            close(subscriber);
+            emitter.complete();
+        });
+
+        topics.compute(subscriber.ownerKey, (owner, set) -> {
+            Set<Subscriber> subscribers = set != null ? set : ConcurrentHashMap.newKeySet();
+            subscribers.add(subscriber);
+            return subscribers;
+        });
+        offer(subscriber, READY);
+        return emitter;
+    }
+
+    // AI 判断ログの追加を所有者に知らせる
+    public void publishDecision(Task task) {
+        bus.publish(CacheInvalidation.decision(ownerId(task), task.getId()));
+    }
+
+    // 一括判断の分（所有者ごとに1回。タスクは特定しない）
+    public void publishDecisions(List<Task> tasks) {
+        tasks.stream().map(TaskEventHub::ownerId).map(CacheInvalidation::ownerKey).distinct()
+                .forEach(owner -> bus.publish(
+                        CacheInvalidation.decision(CacheInvalidation.userId(owner), null)));
+    }
+
+    public int subscriberCount() {
+        return subscriberCount.get();
+    }
+
+    @Scheduled(initialDelayString = "${app.task-events.heartbeat-interval:PT20S}",
+            fixedDelayString = "${app.task-events.heartbeat-interval:PT20S}")
+    public void sendHeartbeats() {
+        topics.values().forEach(subscribers -> subscribers.forEach(s -> offer(s, HEARTBEAT)));
+    }
+
+    private void onChange(CacheInvalidation change) {
+        Long taskId = change.taskId() != 0 ? change.taskId() : null;
+        switch (change.kind()) {
+            // 対象の所有者が分からない（受信側の再接続など）ので全員に取り直してもらう
+            case ALL -> topics.values()
+                    .forEach(subscribers -> subscribers.forEach(s -> offer(s, RESYNC)));
+            case OWNER, TASK -> publish(change.ownerKey(), new TaskEvent(TaskEvent.TASK, taskId));
+            case DECISION -> publish(change.ownerKey(),
+                    new TaskEvent(TaskEvent.AI_DECISION, taskId));
+        }
+    }
+
+    private void publish(long ownerKey, TaskEvent event) {
+        Set<Subscriber> subscribers = topics.get(ownerKey);
+        if (subscribers != null) {
+            subscribers.forEach(s -> offer(s, event));
+        }
+    }
+
+    private void offer(Subscriber subscriber, TaskEvent event) {
+        if (subscriber.closed.get()) {
+            return;
+        }
+        // 未送信の同じイベントがあればまとめる（キューは小さいので線形探索で十分）
+        if (!subscriber.queue.contains(event) && !subscriber.queue.offer(event)) {
+            evict(subscriber);
+            return;
+        }
+        schedule(subscriber);
+    }
+
+    private void evict(Subscriber subscriber) {
+        if (unregister(subscriber)) {
+            evicted.increment();
+            log.info("Evicting slow task event subscriber (owner={})", subscriber.ownerKey);
+            // 切断も送信スレッドで行う（送信中の接続と競合させない）
+            schedule(subscriber);
+        }
+    }
+
+    private void close(Subscriber subscriber) {
+        subscriber.completed.set(true);
+        unregister(subscriber);
+    }
+
+    // 登録を外す。最初に外した呼び出しだけ true
+    private boolean unregister(Subscriber subscriber) {
+        if (!subscriber.closed.compareAndSet(false, true)) {
+            return false;
+        }
+        topics.computeIfPresent(subscriber.ownerKey, (owner, subscribers) -> {
+            subscribers.remove(subscriber);
+            return subscribers.isEmpty() ? null : subscribers;
+        });
+        subscriberCount.decrementAndGet();
+        return true;
+    }
+
+    private void schedule(Subscriber subscriber) {
+        if (subscriber.scheduled.compareAndSet(false, true)) {
+            try {
+                senders.execute(() -> drain(subscriber));
+            } catch (RejectedExecutionException e) {
+                // 停止処理中
+                subscriber.scheduled.set(false);
+            }
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            TaskEvent event;
+            while (!subscriber.closed.get() && (event = subscriber.queue.poll()) != null) {
+                send(subscriber.emitter, event);
+            }
+            if (subscriber.closed.get() && subscriber.completed.compareAndSet(false, true)) {
+                subscriber.queue.clear();
+                subscriber.emitter.complete();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // クライアントが切断済み（onError / onCompletion でも外れる）
+            close(subscriber);
+        } finally {
+            subscriber.scheduled.set(false);
+        }
+        // 送信中に積まれた / 切断された分を取りこぼさない
+        boolean pending = subscriber.closed.get() ? !subscriber.completed.get()
+                : !subscriber.queue.isEmpty();
+        if (pending) {
+            schedule(subscriber);
+        }
+    }
+
+    private static Long ownerId(Task task) {
+        return task.getUser() != null ? task.getUser().getId() : null;
+    }
+
+    private static void send(SseEmitter emitter, TaskEvent event) throws IOException {
+        if (event == HEARTBEAT) {
+            emitter.send(SseEmitter.event().comment("keepalive"));
+        } else {
+            emitter.send(SseEmitter.event().name(event.type()).data(event,
+                    MediaType.APPLICATION_JSON));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // 切断は evict と同じく送信スレッドで行う（送信中の接続と競合させない）
+        List<Subscriber> open = topics.values().stream().flatMap(Set::stream).toList();
+        open.forEach(s -> {
+            if (unregister(s)) {
+                schedule(s);
+            }
+        });
+        senders.shutdown();
+        if (senders.awaitTermination(5, TimeUnit.SECONDS)) {
+            // 送信スレッドは止まったので、ここから触るのはこのスレッドだけ（切断し損ねた分を閉じる）
+            open.stream().filter(s -> s.completed.compareAndSet(false, true))
+                    .forEach(s -> s.emitter.complete());
+        }
+    }
+}
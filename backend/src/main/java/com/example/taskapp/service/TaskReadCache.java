@@ -0,0 +1,231 @@
+package com.example.taskapp.service;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.taskapp.cache.CacheInvalidation;
+import com.example.taskapp.cache.CacheInvalidationBus;
+import com.example.taskapp.dto.SubtaskResponse;
+import com.example.taskapp.dto.TaskBoardItem;
+import com.example.taskapp.dto.TaskResponse;
+import com.example.taskapp.dto.Versioned;
+import com.example.taskapp.repository.SubtaskRepository;
+import com.example.taskapp.repository.TaskRepository;
+import com.example.taskapp.repository.TaskSetVersionRepository;
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+
+/**
+ * タスク・サブタスクの読み取りキャッシュ（リードスルー）。
+ * 所有者（ユーザー / ゲスト）ごとのタスク一覧・ボードと、タスクごとのサブタスク一覧を持つ。
+ * 所有者のタスク一覧は ID でも引けるので、読み取り系の「自分のタスクか」の確認にも使う。
+ * 一覧・ボードは読み込み時点の所有者のバージョン（TaskSetVersion）と組で持ち、ETag に使う。
+ *
+ * 書き込み側はコミット後に invalidate* を呼ぶ。無効化は CacheInvalidationBus 経由で全ノードに届く。
+ * 件数と TTL で上限を設けているので、通知が届かなかった場合も古い値は TTL までしか残らない。
+ */
+@Component
+public class TaskReadCache {
+
+    // 所有者のタスク一覧（バージョン + 一覧の並び + ID 引き）
+    private record OwnerTasks(long version, List<TaskResponse> list, Map<Long, TaskResponse> byId) {
+    }
+
+    private record OwnerBoard(long version, List<TaskBoardItem> items) {
+    }
+
+    private final TaskRepository taskRepository;
+    private final SubtaskRepository subtaskRepository;
+    private final TaskSetVersionRepository versionRepository;
+    private final CacheInvalidationBus bus;
+    private final LoadingCache<Long, OwnerTasks> tasks;
+    private final LoadingCache<Long, OwnerBoard> boards;
+    private final LoadingCache<Long, List<SubtaskResponse>> subtasks;
+
+    public TaskReadCache(TaskRepository taskRepository, SubtaskRepository subtaskRepository,
+            TaskSetVersionRepository versionRepository, CacheInvalidationBus bus,
+            @Value("${app.task-cache.owners.max-size:10000}") long ownerMaxSize,
+            @Value("${app.task-cache.subtasks.max-size:100000}") long subtaskMaxSize,
+            @Value("${app.task-cache.ttl:5m}") Duration ttl) {
+        this.taskRepository = taskRepository;
+        this.subtaskRepository = subtaskRepository;
+        this.versionRepository = versionRepository;
+        this.bus = bus;
+        this.tasks = Caffeine.newBuilder().maximumSize(ownerMaxSize).expireAfterWrite(ttl)
+                .recordStats().build(this::loadTasks);
+        this.boards = Caffeine.newBuilder().maximumSize(ownerMaxSize).expireAfterWrite(ttl)
+                .recordStats().build(this::loadBoard);
+        this.subtasks = Caffeine.newBuilder().maximumSize(subtaskMaxSize).expireAfterWrite(ttl)
+                .recordStats().build(new CacheLoader<Long, List<SubtaskResponse>>() {
+                    @Override
+                    public List<SubtaskResponse> load(Long taskId) {
+                        return loadSubtasks(Set.of(taskId)).get(taskId);
+                    }
+
+                    // ボードのように複数タスク分が欠けていても IN 句の1クエリで読む
+                    @Override
+                    public Map<Long, List<SubtaskResponse>> loadAll(Set<? extends Long> taskIds) {
+                        return loadSubtasks(taskIds);
+                    }
+                });
+
+        bus.subscribe(this::apply);
+    }
+
+    // ===== 読み取り =====
+
+    public List<TaskResponse> findTasks(Long userId) {
+        return findVersionedTasks(userId).value();
+    }
+
+    public Versioned<List<TaskResponse>> findVersionedTasks(Long userId) {
+        long owner = CacheInvalidation.ownerKey(userId);
+        OwnerTasks owned = tasks.get(owner);
+        return new Versioned<>(owner, owned.version(), owned.list());
+    }
+
+    // 所有者のタスクでなければ（存在しなければ）空
+    public Optional<TaskResponse> findTask(Long userId, Long taskId) {
+        OwnerTasks owned = tasks.get(CacheInvalidation.ownerKey(userId));
+        return Optional.ofNullable(owned.byId().get(taskId));
+    }
+
+    public Versioned<List<TaskBoardItem>> findVersionedBoard(Long userId) {
+        long owner = CacheInvalidation.ownerKey(userId);
+        OwnerBoard board = boards.get(owner);
+        return new Versioned<>(owner, board.version(), board.items());
+    }
+
+    // SubtaskResponse は可変なので、呼び出し側で書き換えられてもキャッシュが汚れないようコピーを返す
+    public List<SubtaskResponse> findSubtasks(Long taskId) {
+        return copy(subtasks.get(taskId));
+    }
+
+    public Map<Long, List<SubtaskResponse>> findSubtasks(Collection<Long> taskIds) {
+        Map<Long, List<SubtaskResponse>> result = new HashMap<>();
+        subtasks.getAll(taskIds).forEach((taskId, list) -> result.put(taskId, copy(list)));
+        return result;
+    }
+
+    // ===== 無効化（トランザクション中ならコミット後に配信する。ロールバックなら何もしない） =====
+
+    // タスク自体の追加・更新（一覧とボード）
+    public void invalidateOwner(Long userId) {
+        publishAfterCommit(CacheInvalidation.owner(userId));
+    }
+
+    // 同上。変更したタスクをライブ更新（TaskEventHub）で伝えられる
+    public void invalidateOwner(Long userId, Long taskId) {
+        publishAfterCommit(CacheInvalidation.owner(userId, taskId));
+    }
+
+    // サブタスクの追加・更新・削除、タスクの削除（一覧・ボードのカウンタも変わる）
+    public void invalidateTask(Long userId, Long taskId) {
+        publishAfterCommit(CacheInvalidation.task(userId, taskId));
+    }
+
+    // 所有者を特定できない一括更新（カウンタ修復など）
+    public void invalidateAll() {
+        publishAfterCommit(CacheInvalidation.all());
+    }
+
+    public LoadingCache<Long, ?> taskCache() {
+        return tasks;
+    }
+
+    public LoadingCache<Long, ?> boardCache() {
+        return boards;
+    }
+
+    public LoadingCache<Long, ?> subtaskCache() {
+        return subtasks;
+    }
+
+    private void publishAfterCommit(CacheInvalidation invalidation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            bus.publish(invalidation);
+                        }
+                    });
+        } else {
+            bus.publish(invalidation);
+        }
+    }
+
+    // 読み込み中のキーを無効化した場合、Caffeine は読み込みの完了を待ってから消すので
+    // コミット前の値が読み込まれていても残らない
+    private void apply(CacheInvalidation invalidation) {
+        switch (invalidation.kind()) {
+            case ALL -> {
+                tasks.invalidateAll();
+                boards.invalidateAll();
+                subtasks.invalidateAll();
+            }
+            case TASK -> {
+                subtasks.invalidate(invalidation.taskId());
+                tasks.invalidate(invalidation.ownerKey());
+                boards.invalidate(invalidation.ownerKey());
+            }
+            case OWNER -> {
+                tasks.invalidate(invalidation.ownerKey());
+                boards.invalidate(invalidation.ownerKey());
+            }
+            case DECISION -> {
+                // AI 判断ログはキャッシュしていない
+            }
+        }
+    }
+
+    // バージョンは一覧より先に読む（間に変更がコミットされても、一覧が新しい側にずれるだけで
+    // 「古い一覧に新しい ETag」にはならない）
+    private OwnerTasks loadTasks(Long owner) {
+        long version = currentVersion(owner);
+        List<TaskResponse> list = List.copyOf(
+                taskRepository.findResponses(CacheInvalidation.userId(owner)));
+        return new OwnerTasks(version, list, list.stream()
+                .collect(Collectors.toUnmodifiableMap(TaskResponse::id, Function.identity())));
+    }
+
+    private OwnerBoard loadBoard(Long owner) {
+        long version = currentVersion(owner);
+        return new OwnerBoard(version,
+                List.copyOf(taskRepository.findBoard(CacheInvalidation.userId(owner))));
+    }
+
+    private long currentVersion(long owner) {
+        return versionRepository.findVersion(owner).orElse(0L);
+    }
+
+    private Map<Long, List<SubtaskResponse>> loadSubtasks(Set<? extends Long> taskIds) {
+        Map<Long, List<SubtaskResponse>> loaded = subtaskRepository
+                .findResponsesByTaskIdIn(List.copyOf(taskIds)).stream()
+                .collect(Collectors.groupingBy(SubtaskResponse::getTaskId));
+        // サブタスクが無いタスクも空リストとしてキャッシュする
+        Map<Long, List<SubtaskResponse>> result = new HashMap<>();
+        taskIds.forEach(id -> result.put(id, List.copyOf(loaded.getOrDefault(id, List.of()))));
+        return result;
+    }
+
+    private static List<SubtaskResponse> copy(List<SubtaskResponse> source) {
+        return source.stream()
+                .map(s -> new SubtaskResponse(s.getId(), s.getTitle(), s.isCompleted(),
+                        s.getTaskId()))
+                .toList();
+    }
+}
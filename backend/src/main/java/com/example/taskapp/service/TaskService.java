@@ -1,25 +1,64 @@
 package com.example.taskapp.service;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.example.taskapp.dto.CreateTaskRequest;
+import com.example.taskapp.dto.SubtaskResponse;
+import com.example.taskapp.dto.TaskBoardItem;
+import com.example.taskapp.dto.TaskChanges;
+import com.example.taskapp.dto.TaskCursor;
+import com.example.taskapp.dto.TaskFilter;
+import com.example.taskapp.dto.TaskResponse;
+import com.example.taskapp.dto.PageResponse;
+import com.example.taskapp.dto.TaskSort;
+import com.example.taskapp.dto.Versioned;
 import com.example.taskapp.entity.Task;
 import com.example.taskapp.entity.TaskState;
 import com.example.taskapp.entity.User;
+import com.example.taskapp.exception.ApiException;
+import com.example.taskapp.repository.AiDecisionLogRepository;
+import com.example.taskapp.repository.SubtaskRepository;
 import com.example.taskapp.repository.TaskRepository;
+import com.example.taskapp.repository.TaskSetVersionRepository;
+import com.example.taskapp.repository.TaskTombstoneRepository;
 
 @Service
 public class TaskService {
 
+    // 1ページあたりの件数（未指定時 / 上限）
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+
     private final TaskRepository taskRepository;
+    private final SubtaskRepository subtaskRepository;
+    private final AiDecisionLogRepository aiDecisionLogRepository;
+    private final TaskReadCache taskReadCache;
+    private final TaskChangeTracker changeTracker;
+    private final TaskTombstoneRepository tombstoneRepository;
+    private final TaskSetVersionRepository versionRepository;
 
-    public TaskService(TaskRepository taskRepository) {
+    public TaskService(TaskRepository taskRepository, SubtaskRepository subtaskRepository,
+            AiDecisionLogRepository aiDecisionLogRepository, TaskReadCache taskReadCache,
+            TaskChangeTracker changeTracker, TaskTombstoneRepository tombstoneRepository,
+            TaskSetVersionRepository versionRepository) {
         this.taskRepository = taskRepository;
+        this.subtaskRepository = subtaskRepository;
+        this.aiDecisionLogRepository = aiDecisionLogRepository;
+        this.taskReadCache = taskReadCache;
+        this.changeTracker = changeTracker;
+        this.tombstoneRepository = tombstoneRepository;
+        this.versionRepository = versionRepository;
     }
 
     // タスク作成
+    @Transactional
     public Task createTask(CreateTaskRequest request, User user) {
         Task task = new Task();
         task.setTitle(request.getTitle());
@@ -35,12 +74,181 @@ public class TaskService {
 
         task.setUser(user);
         task.setCreatedAt(LocalDateTime.now());
+        task.setUpdatedAt(task.getCreatedAt());
+        task.setChangeVersion(changeTracker.nextVersion(userId(user)));
+
+        Task saved = taskRepository.save(task);
+        taskReadCache.invalidateOwner(userId(user), saved.getId());
+        return saved;
+    }
+
+    // タスク更新（タイトル・説明・完了・締切・優先度）
+    @Transactional
+    public Task updateTask(Task task, Task changes) {
+        markChanged(task);
+        task.setTitle(changes.getTitle());
+        task.setDescription(changes.getDescription());
+        task.setCompleted(changes.isCompleted());
+        task.setDueDate(changes.getDueDate());
+        task.setPriority(changes.getPriority());
+
+        Task saved = taskRepository.save(task);
+        taskReadCache.invalidateOwner(ownerId(task), task.getId());
+        return saved;
+    }
+
+    // 状態更新（互換：DONE なら completed=true）
+    @Transactional
+    public Task updateState(Task task, TaskState state) {
+        markChanged(task);
+        task.setState(state);
+        if (state == TaskState.DONE) {
+            task.setCompleted(true);
+        }
 
-        return taskRepository.save(task);
+        Task saved = taskRepository.save(task);
+        taskReadCache.invalidateOwner(ownerId(task), task.getId());
+        return saved;
+    }
+
+    // タスク削除。子行は1件ずつ読まずに task_id 指定の DELETE 1文ずつで消すので、
+    // サブタスクやログの件数に関係なく往復回数は一定
+    @Transactional
+    public void deleteTask(Task task) {
+        // 差分同期で削除を返せるよう記録を残す（バージョンの行ロックを先に取る）
+        changeTracker.recordDeletion(ownerId(task), task.getId(),
+                changeTracker.nextVersion(ownerId(task)));
+        subtaskRepository.deleteByTaskId(task.getId());
+        aiDecisionLogRepository.deleteByTaskId(task.getId());
+        taskRepository.delete(task);
+        taskReadCache.invalidateTask(ownerId(task), task.getId());
     }
 
     // タスク取得（AI判断用）
     public Task findById(Long id) {
-        return taskRepository.findById(id).orElseThrow(() -> new RuntimeException("タスクが見つかりません"));
+        return taskRepository.findById(id).orElseThrow(() -> ApiException.notFound("TASK_NOT_FOUND"));
+    }
+
+    // タスク一覧（DTO で必要な列だけ読む。TaskReadCache 経由）。user が null ならゲスト用タスク
+    // 所有者のバージョンつき（ETag 用）
+    public Versioned<List<TaskResponse>> findAll(User user) {
+        return taskReadCache.findVersionedTasks(userId(user));
+    }
+
+    // 差分同期：since（前回のレスポンスの version）より後に追加・変更・削除したタスク。
+    // since が最新ならキャッシュだけで返す。削除記録を消した範囲より古い / 未知の since なら全件
+    public TaskChanges findChanges(User user, long since) {
+        Long userId = userId(user);
+        Versioned<List<TaskResponse>> current = taskReadCache.findVersionedTasks(userId);
+        if (since <= 0 || since > current.version()) {
+            return new TaskChanges(current.version(), true, current.value(), List.of());
+        }
+        if (since == current.version()) {
+            return new TaskChanges(current.version(), false, List.of(), List.of());
+        }
+
+        List<TaskResponse> changed = taskRepository.findResponsesChangedSince(userId, since);
+        List<Long> deleted = tombstoneRepository.findTaskIdsDeletedSince(current.ownerKey(), since);
+        // 削除記録の後に読む（間に消されていたら pruned_version も進んでいる）
+        long pruned = versionRepository.findPrunedVersion(current.ownerKey()).orElse(0L);
+        if (since < pruned) {
+            return new TaskChanges(current.version(), true, current.value(), List.of());
+        }
+        return new TaskChanges(current.version(), false, changed, deleted);
+    }
+
+    // 読み取り系の所有者チェック（キャッシュ済みの一覧で確認するので DB に問い合わせない）
+    public TaskResponse findAccessible(User user, Long taskId) {
+        return taskReadCache.findTask(userId(user), taskId)
+                .orElseThrow(() -> ApiException.notFound("TASK_NOT_FOUND"));
+    }
+
+    // AI 判断用：キャッシュ済みの一覧から組み立てた読み取り専用のタスク（保存には使わない）
+    public Task findForDecision(User user, Long taskId) {
+        return toTask(findAccessible(user, taskId), user);
+    }
+
+    // AI 一括判断用：taskIds が空なら所有者の全タスク、指定があれば自分のタスクだけ
+    public List<Task> findForDecision(User user, Collection<Long> taskIds) {
+        if (taskIds == null || taskIds.isEmpty()) {
+            return taskReadCache.findTasks(userId(user)).stream()
+                    .map(response -> toTask(response, user)).toList();
+        }
+        return taskIds.stream().distinct()
+                .map(id -> taskReadCache.findTask(userId(user), id))
+                .flatMap(Optional::stream)
+                .map(response -> toTask(response, user))
+                .toList();
+    }
+
+    // タスク一覧（キーセットページング）。user が null ならゲスト用タスク
+    public PageResponse<TaskResponse> findPage(User user, TaskFilter filter, TaskSort sort,
+            String cursor, Integer limit) {
+        TaskSort resolvedSort = sort != null ? sort : TaskSort.CREATED_AT;
+        int size = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        TaskCursor after = cursor == null || cursor.isEmpty() ? null
+                : TaskCursor.decode(cursor, resolvedSort);
+
+        // 1件多く読んで次ページの有無を判定する
+        List<TaskResponse> rows = taskRepository.findPage(userId(user), filter,
+                resolvedSort, after, size + 1);
+
+        boolean hasNext = rows.size() > size;
+        List<TaskResponse> items = hasNext ? rows.subList(0, size) : rows;
+        String nextCursor = hasNext
+                ? TaskCursor.of(resolvedSort, items.get(items.size() - 1)).encode()
+                : null;
+
+        return new PageResponse<>(items, nextCursor, hasNext);
+    }
+
+    // ボード表示用（user が null ならゲスト用タスク）
+    // 集計は1クエリ、includeSubtasks のときもサブタスク本体は IN 句で1クエリだけ追加する
+    public Versioned<List<TaskBoardItem>> getBoard(User user, boolean includeSubtasks) {
+        Versioned<List<TaskBoardItem>> board = taskReadCache.findVersionedBoard(userId(user));
+        List<TaskBoardItem> items = board.value();
+        if (!includeSubtasks || items.isEmpty()) {
+            return board;
+        }
+
+        // サブタスクの変更でも所有者のバージョンは進むので、ボードのバージョンをそのまま使える
+        Map<Long, List<SubtaskResponse>> subtasksByTask = taskReadCache
+                .findSubtasks(items.stream().map(TaskBoardItem::id).toList());
+
+        return new Versioned<>(board.ownerKey(), board.version(), items.stream()
+                .map(item -> item.withSubtasks(subtasksByTask.getOrDefault(item.id(), List.of())))
+                .toList());
+    }
+
+    private static Long userId(User user) {
+        return user != null ? user.getId() : null;
+    }
+
+    // 変更バージョン・更新日時を進める（所有者のバージョン行のロックを先に取る）
+    private void markChanged(Task task) {
+        task.setChangeVersion(changeTracker.nextVersion(ownerId(task)));
+        task.setUpdatedAt(LocalDateTime.now());
+    }
+
+    private static Long ownerId(Task task) {
+        return userId(task.getUser());
+    }
+
+    // user は所有者（AI 判断のライブ更新の宛先）。保存はしないので参照として持つだけ
+    private static Task toTask(TaskResponse response, User user) {
+        Task task = new Task();
+        task.setUser(user);
+        task.setId(response.id());
+        task.setTitle(response.title());
+        task.setDescription(response.description());
+        task.setCompleted(response.completed());
+        task.setCreatedAt(response.createdAt());
+        task.setUpdatedAt(response.updatedAt());
+        task.setDueDate(response.dueDate());
+        task.setPriority(response.priority());
+        task.setState(response.state());
+        task.setSubtaskTotal(response.subtaskTotal());
+        task.setSubtaskCompleted(response.subtaskCompleted());
+        return task;
     }
 }
@@ -0,0 +1,65 @@
+-- =====================================================================
+-- V1: ベースラインスキーマ（エンティティと同じ定義）
+--
+-- ddl-auto=update で作られた既存DBにもそのまま流せるよう、すべて IF NOT EXISTS で書く
+-- （spring.flyway.baseline-version=0 なので既存DBでもこのファイルから実行される）。
+-- =====================================================================
+
+CREATE TABLE IF NOT EXISTS users (
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    email      VARCHAR(255) NOT NULL,
+    password   VARCHAR(255) NOT NULL,
+    created_at TIMESTAMP(6),
+    CONSTRAINT uk_users_email UNIQUE (email)
+);
+
+CREATE TABLE IF NOT EXISTS tasks (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    title       VARCHAR(255),
+    description VARCHAR(255),
+    completed   BOOLEAN      NOT NULL,
+    created_at  TIMESTAMP(6),
+    due_date    DATE,
+    priority    VARCHAR(255),
+    state       VARCHAR(255) NOT NULL
+        CHECK (state IN ('PENDING', 'EXECUTING', 'DONE')),
+    user_id     BIGINT REFERENCES users (id)
+);
+
+-- 後から追加した列（ddl-auto=update 時代のDBには既にある場合もあるので ADD COLUMN IF NOT EXISTS で足す）
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS priority_rank INTEGER;
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS subtask_total INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS subtask_completed INTEGER NOT NULL DEFAULT 0;
+
+UPDATE tasks SET priority_rank = CASE priority
+        WHEN 'high' THEN 0 WHEN 'medium' THEN 1 WHEN 'low' THEN 2 END
+WHERE priority_rank IS NULL AND priority IN ('high', 'medium', 'low');
+
+CREATE TABLE IF NOT EXISTS subtasks (
+    id        BIGINT       NOT NULL PRIMARY KEY,
+    title     VARCHAR(255),
+    completed BOOLEAN      NOT NULL,
+    task_id   BIGINT       NOT NULL REFERENCES tasks (id)
+);
+
+-- パーティション化する場合は db/postgres/ai_decision_logs_partitioning.sql を参照
+CREATE TABLE IF NOT EXISTS ai_decision_logs (
+    id              BIGINT       NOT NULL PRIMARY KEY,
+    task_id         BIGINT,
+    suggested_state VARCHAR(255)
+        CHECK (suggested_state IN ('PENDING', 'EXECUTING', 'DONE')),
+    reason          VARCHAR(1000),
+    created_at      TIMESTAMP(6)
+);
+
+-- ===== ID シーケンス（Hibernate の pooled-lo で50件ずつ払い出す） =====
+
+CREATE SEQUENCE IF NOT EXISTS subtasks_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS ai_decision_logs_seq START WITH 1 INCREMENT BY 50;
+
+-- IDENTITY 時代の行がある場合、まだ一度も使われていないシーケンスを既存の最大IDの次から始める
+SELECT setval('subtasks_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM subtasks), false)
+FROM subtasks_seq WHERE NOT is_called;
+
+SELECT setval('ai_decision_logs_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM ai_decision_logs), false)
+FROM ai_decision_logs_seq WHERE NOT is_called;
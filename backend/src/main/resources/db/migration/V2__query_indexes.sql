@@ -0,0 +1,55 @@
+-- =====================================================================
+-- V2: 一覧・履歴クエリ用のインデックス
+--
+-- 並び順は TaskRepositoryCustomImpl / AiDecisionLogRepository の ORDER BY と揃える
+-- （向きと NULLS の位置が一致しないとソートが走る）。
+--
+-- 既存の大きなテーブルに張るので CONCURRENTLY で作る（書き込みを止めない）。
+-- CONCURRENTLY はトランザクション内で実行できないため、このマイグレーションは
+-- トランザクション外で流す（V2__query_indexes.sql.conf）。
+-- 途中で失敗すると INVALID なインデックスが残るので、どれも DROP してから作り直す
+-- （再実行しても同じ結果になる。ddl-auto=update が同じ名前で作った古い定義もここで消える）。
+-- ai_decision_logs のパーティション化（db/postgres）はこの後に行う（パーティションテーブルには CONCURRENTLY で作れない）。
+-- =====================================================================
+
+-- ===== tasks：ログインユーザーの一覧（user_id + ソートキー + id のキーセットページング） =====
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_tasks_user_created;
+DROP INDEX CONCURRENTLY IF EXISTS idx_tasks_user_due;
+DROP INDEX CONCURRENTLY IF EXISTS idx_tasks_user_priority;
+DROP INDEX CONCURRENTLY IF EXISTS idx_tasks_user_state;
+
+-- 新しい順（created_at DESC NULLS LAST, id DESC）。ボードもこの順
+CREATE INDEX CONCURRENTLY idx_tasks_user_created
+    ON tasks (user_id, created_at DESC NULLS LAST, id DESC);
+-- 締切が近い順 / 優先度が高い順（ASC は既定で NULLS LAST）
+CREATE INDEX CONCURRENTLY idx_tasks_user_due ON tasks (user_id, due_date, id);
+CREATE INDEX CONCURRENTLY idx_tasks_user_priority ON tasks (user_id, priority_rank, id);
+CREATE INDEX CONCURRENTLY idx_tasks_user_state ON tasks (user_id, state);
+
+-- ===== tasks：ゲスト（user_id IS NULL）の一覧は部分インデックスで小さく持つ =====
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_tasks_guest_created;
+DROP INDEX CONCURRENTLY IF EXISTS idx_tasks_guest_due;
+DROP INDEX CONCURRENTLY IF EXISTS idx_tasks_guest_priority;
+
+CREATE INDEX CONCURRENTLY idx_tasks_guest_created ON tasks (created_at DESC NULLS LAST, id DESC)
+    WHERE user_id IS NULL;
+CREATE INDEX CONCURRENTLY idx_tasks_guest_due ON tasks (due_date, id) WHERE user_id IS NULL;
+CREATE INDEX CONCURRENTLY idx_tasks_guest_priority ON tasks (priority_rank, id)
+    WHERE user_id IS NULL;
+
+-- ===== subtasks：タスクごとの取得 / 一括削除 / カウンタ修復の COUNT、外部キーの削除チェック =====
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_subtasks_task;
+
+CREATE INDEX CONCURRENTLY idx_subtasks_task ON subtasks (task_id, id);
+
+-- ===== ai_decision_logs：タスクごとの履歴・最新判断（created_at DESC, id DESC）と保持期間の削除 =====
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_ai_decision_logs_task_created;
+DROP INDEX CONCURRENTLY IF EXISTS idx_ai_decision_logs_created;
+
+CREATE INDEX CONCURRENTLY idx_ai_decision_logs_task_created
+    ON ai_decision_logs (task_id, created_at DESC, id DESC);
+CREATE INDEX CONCURRENTLY idx_ai_decision_logs_created ON ai_decision_logs (created_at);
@@ -0,0 +1,21 @@
+-- =====================================================================
+-- V3: tasks / users の ID を IDENTITY からシーケンス（pooled-lo、50件単位）に切り替える
+--
+-- IDENTITY のままだと Hibernate は INSERT を1件ずつ即時実行して生成キーを読むので、
+-- JDBC バッチ（hibernate.jdbc.batch_size）が効かない。
+-- 採番元が2つにならないよう、IDENTITY は外す（ddl-auto=update 時代の subtasks / ai_decision_logs も同様）。
+-- =====================================================================
+
+CREATE SEQUENCE IF NOT EXISTS tasks_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+
+SELECT setval('tasks_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM tasks), false)
+FROM tasks_seq WHERE NOT is_called;
+
+SELECT setval('users_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM users), false)
+FROM users_seq WHERE NOT is_called;
+
+ALTER TABLE tasks ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE subtasks ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE ai_decision_logs ALTER COLUMN id DROP IDENTITY IF EXISTS;
@@ -0,0 +1,33 @@
+-- =====================================================================
+-- V4: タスク一覧の ETag（304 Not Modified）と差分同期（?since=<version>）
+--
+-- task_set_versions … 所有者（ユーザーID / ゲストは 0）ごとのバージョン。変更のたびに +1
+-- tasks.change_version … 最後に変更したときの所有者のバージョン
+-- task_tombstones … 削除したタスクの記録（保持期間を過ぎたら削除し、pruned_version に残す）
+-- 既存のタスクは change_version = 0（クライアントは初回に全件を取得するので問題ない）
+-- =====================================================================
+
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS updated_at TIMESTAMP(6);
+ALTER TABLE tasks ADD COLUMN IF NOT EXISTS change_version BIGINT NOT NULL DEFAULT 0;
+
+UPDATE tasks SET updated_at = created_at WHERE updated_at IS NULL;
+
+CREATE TABLE IF NOT EXISTS task_set_versions (
+    owner_key      BIGINT NOT NULL PRIMARY KEY,
+    version        BIGINT NOT NULL,
+    pruned_version BIGINT NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS task_tombstones (
+    task_id    BIGINT NOT NULL PRIMARY KEY,
+    owner_key  BIGINT NOT NULL,
+    version    BIGINT NOT NULL,
+    deleted_at TIMESTAMP(6)
+);
+
+-- 差分の取得（所有者 + バージョン）。ゲストは部分インデックス
+CREATE INDEX IF NOT EXISTS idx_tasks_user_change ON tasks (user_id, change_version);
+CREATE INDEX IF NOT EXISTS idx_tasks_guest_change ON tasks (change_version) WHERE user_id IS NULL;
+
+CREATE INDEX IF NOT EXISTS idx_task_tombstones_owner_version ON task_tombstones (owner_key, version);
+CREATE INDEX IF NOT EXISTS idx_task_tombstones_deleted ON task_tombstones (deleted_at);
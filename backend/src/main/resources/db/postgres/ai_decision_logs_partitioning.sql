@@ -0,0 +1,61 @@
+-- =====================================================================
+-- ai_decision_logs を created_at の月次レンジパーティションに移行する（PostgreSQL・手動で1回だけ実行）
+-- Flyway のマイグレーション（db/migration）を適用した後に実行する。
+--
+-- 移行後は AiDecisionLogPartitionManager が
+--   ・3ヶ月先までのパーティションを自動作成（起動直後と12時間ごと）
+--   ・作成が間に合わなかった月の行は DEFAULT パーティションが受け、その月のパーティション作成時に移す
+--   ・保存期間を過ぎた月のパーティションを DROP（行単位の DELETE をしない）
+-- を行う。パーティション名は ai_decision_logs_pYYYYMM。
+--
+-- 注意：パーティションテーブルの主キーにはパーティションキーを含める必要があるため
+--       主キーは (id, created_at) になる。id はシーケンス採番なので一意性は保たれる。
+-- =====================================================================
+
+BEGIN;
+
+ALTER TABLE ai_decision_logs RENAME TO ai_decision_logs_old;
+-- インデックス名は旧テーブルに付いたまま残るので、新テーブルで同じ名前を使えるよう先に消す
+DROP INDEX IF EXISTS idx_ai_decision_logs_task_created;
+DROP INDEX IF EXISTS idx_ai_decision_logs_created;
+
+CREATE TABLE ai_decision_logs (
+    id              BIGINT       NOT NULL,
+    task_id         BIGINT,
+    suggested_state VARCHAR(255),
+    reason          VARCHAR(1000),
+    created_at      TIMESTAMP(6) NOT NULL,
+    PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- 既存データの最古の月から3ヶ月先までパーティションを作成
+DO $$
+DECLARE
+    m DATE := date_trunc('month', COALESCE(
+        (SELECT MIN(created_at) FROM ai_decision_logs_old), now()))::date;
+    last_month DATE := (date_trunc('month', now()) + interval '3 months')::date;
+BEGIN
+    WHILE m <= last_month LOOP
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS ai_decision_logs_p%s PARTITION OF ai_decision_logs '
+            'FOR VALUES FROM (%L) TO (%L)',
+            to_char(m, 'YYYYMM'), m, (m + interval '1 month')::date);
+        m := (m + interval '1 month')::date;
+    END LOOP;
+END $$;
+
+-- パーティションが無い月の INSERT を失敗させない受け皿
+CREATE TABLE ai_decision_logs_default PARTITION OF ai_decision_logs DEFAULT;
+
+-- 定義は db/migration/V2__query_indexes.sql と同じ
+CREATE INDEX idx_ai_decision_logs_task_created
+    ON ai_decision_logs (task_id, created_at DESC, id DESC);
+CREATE INDEX idx_ai_decision_logs_created ON ai_decision_logs (created_at);
+
+INSERT INTO ai_decision_logs (id, task_id, suggested_state, reason, created_at)
+SELECT id, task_id, suggested_state, reason, COALESCE(created_at, now())
+FROM ai_decision_logs_old;
+
+DROP TABLE ai_decision_logs_old;
+
+COMMIT;
@@ -0,0 +1,107 @@
+package com.example.taskapp;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.MigrationInfo;
+import org.flywaydb.core.api.MigrationState;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * db/migration（V1〜）を実際の PostgreSQL に流し、ddl-auto=validate でエンティティと突き合わせる。
+ * H2 のテストはエンティティからスキーマを作るので、マイグレーション自体はここでしか確かめられない。
+ *
+ * PostgreSQL が必要なので、接続先を渡したときだけ実行する（毎回新しいスキーマを作って最後に消す）。
+ *   mvn test -Dtest.postgres.url=jdbc:postgresql://localhost:5432/taskdb
+ *            [-Dtest.postgres.username=postgres -Dtest.postgres.password=postgres]
+ */
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.jpa.hibernate.ddl-auto=validate",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.datasource.driverClassName=org.postgresql.Driver"
+})
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "test.postgres.url", matches = ".+")
+class FlywayMigrationTests {
+
+    private static final String SCHEMA = "flyway_test_" + UUID.randomUUID().toString().replace("-", "");
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", FlywayMigrationTests::url);
+        registry.add("spring.datasource.username", FlywayMigrationTests::username);
+        registry.add("spring.datasource.password", FlywayMigrationTests::password);
+        registry.add("spring.flyway.default-schema", () -> SCHEMA);
+    }
+
+    @Autowired
+    private Flyway flyway;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void migrationsApplyToEmptyDatabaseAndMatchEntities() {
+        // ここまで来ればマイグレーションと Hibernate の validate は通っている
+        MigrationInfo[] applied = flyway.info().applied();
+        assertThat(applied).isNotEmpty();
+        assertThat(applied).allMatch(m -> m.getState() == MigrationState.SUCCESS);
+        assertThat(flyway.info().pending()).isEmpty();
+    }
+
+    @Test
+    void queryIndexesAreBuiltAndValid() {
+        // CONCURRENTLY で作ったインデックスが途中で失敗すると INVALID のまま残る
+        List<String> valid = jdbcTemplate.queryForList("""
+                SELECT c.relname FROM pg_index i
+                  JOIN pg_class c ON c.oid = i.indexrelid
+                  JOIN pg_namespace n ON n.oid = c.relnamespace
+                 WHERE n.nspname = ? AND i.indisvalid
+                """, String.class, SCHEMA);
+
+        assertThat(valid).contains(
+                "idx_tasks_user_created", "idx_tasks_user_due", "idx_tasks_user_priority",
+                "idx_tasks_user_state", "idx_tasks_guest_created", "idx_tasks_guest_due",
+                "idx_tasks_guest_priority", "idx_subtasks_task",
+                "idx_ai_decision_logs_task_created", "idx_ai_decision_logs_created");
+        assertThat(jdbcTemplate.queryForObject("""
+                SELECT count(*) FROM pg_index i
+                  JOIN pg_class c ON c.oid = i.indexrelid
+                  JOIN pg_namespace n ON n.oid = c.relnamespace
+                 WHERE n.nspname = ? AND NOT i.indisvalid
+                """, Integer.class, SCHEMA)).isZero();
+    }
+
+    @AfterAll
+    static void dropSchema() {
+        new JdbcTemplate(new DriverManagerDataSource(url(), username(), password()))
+                .execute("DROP SCHEMA IF EXISTS " + SCHEMA + " CASCADE");
+    }
+
+    // エンティティの検証もテスト用スキーマに対して行うよう search_path を向ける
+    private static String url() {
+        String url = System.getProperty("test.postgres.url");
+        return url + (url.contains("?") ? "&" : "?") + "currentSchema=" + SCHEMA;
+    }
+
+    private static String username() {
+        return System.getProperty("test.postgres.username", "postgres");
+    }
+
+    private static String password() {
+        return System.getProperty("test.postgres.password", "postgres");
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.taskapp.client;
+
+import com.sun.net.httpserver.HttpServer;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// ローカルのスタブ HTTP サーバーで遅延・エラーを再現して OpenAiClient の挙動を確認する
+class OpenAiClientTest {
+
+    private static final String OK_BODY =
+            "{\"choices\":[{\"message\":{\"content\":\"[\\\"a\\\",\\\"b\\\",\\\"c\\\"]\"}}]}";
+
+    private HttpServer server;
+    private final AtomicInteger hits = new AtomicInteger();
+    private volatile int status = 200;
+    private volatile long delayMs = 0;
+
+    @BeforeEach
+    void startStub() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.createContext("/v1/chat/completions", exchange -> {
+            hits.incrementAndGet();
+            try {
+                Thread.sleep(delayMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            byte[] body = (status == 200 ? OK_BODY : "{\"error\":\"stub\"}")
+                    .getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void stopStub() {
+        server.stop(0);
+    }
+
+    @Test
+    void returnsResponseBody() {
+        OpenAiClient client = client(Duration.ofSeconds(2), 5);
+
+        assertThat(client.chatCompletions(Map.of("model", "m")).block()).isEqualTo(OK_BODY);
+    }
+
+    @Test
+    void failsFastWhenUpstreamIsSlow() {
+        delayMs = 1500;
+        OpenAiClient client = client(Duration.ofMillis(200), 5);
+
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> client.chatCompletions(Map.of()).block())
+                .isInstanceOf(OpenAiUnavailableException.class)
+                .hasMessageContaining("timed out");
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofMillis(1000));
+    }
+
+    @Test
+    void opensCircuitAfterRepeatedErrors() {
+        status = 500;
+        OpenAiClient client = client(Duration.ofSeconds(2), 5);
+
+        for (int i = 0; i < 4; i++) {
+            assertThatThrownBy(() -> client.chatCompletions(Map.of()).block())
+                    .isInstanceOf(OpenAiUnavailableException.class);
+        }
+        assertThat(client.circuitState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        // ブレーカー作動中は上流に届かない
+        int before = hits.get();
+        assertThatThrownBy(() -> client.chatCompletions(Map.of()).block())
+                .isInstanceOf(OpenAiUnavailableException.class)
+                .hasMessageContaining("circuit breaker");
+        assertThat(hits.get()).isEqualTo(before);
+    }
+
+    @Test
+    void rejectsCallsBeyondConcurrencyLimit() {
+        delayMs = 500;
+        OpenAiClient client = client(Duration.ofSeconds(2), 1);
+
+        Mono<String> first = client.chatCompletions(Map.of()).cache();
+        first.subscribe();
+
+        assertThatThrownBy(() -> client.chatCompletions(Map.of()).block())
+                .isInstanceOf(OpenAiUnavailableException.class)
+                .hasMessageContaining("concurrent");
+        assertThat(first.block()).isEqualTo(OK_BODY);
+    }
+
+    private OpenAiClient client(Duration callTimeout, int maxConcurrentCalls) {
+        OpenAiClientProperties properties = new OpenAiClientProperties(Duration.ofSeconds(1),
+                callTimeout, callTimeout, 10, Duration.ofSeconds(1), maxConcurrentCalls,
+                new OpenAiClientProperties.CircuitBreaker(50, Duration.ofSeconds(5), 50, 4, 4,
+                        Duration.ofSeconds(30)));
+        return new OpenAiClient("http://127.0.0.1:" + server.getAddress().getPort() + "/v1",
+                "test-key", properties);
+    }
+}
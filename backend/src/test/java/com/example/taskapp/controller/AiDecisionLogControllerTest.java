@@ -0,0 +1,105 @@
+package com.example.taskapp.controller;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.example.taskapp.entity.AiDecisionLog;
+import com.example.taskapp.entity.TaskState;
+import com.example.taskapp.repository.AiDecisionLogRepository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql("/data-test.sql")
+class AiDecisionLogControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AiDecisionLogRepository logRepository;
+
+    @Test
+    @WithMockUser(username = "user")
+    void testLogPageAndLatest() throws Exception {
+        long taskA = createTask("A");
+        long taskB = createTask("B");
+
+        // 同じ時刻のログを混ぜて、id での順序固定も確認する
+        LocalDateTime base = LocalDateTime.of(2026, 1, 1, 9, 0);
+        List<AiDecisionLog> logs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            logs.add(log(taskA, TaskState.PENDING, base.plusMinutes(i / 2)));
+        }
+        logs.add(log(taskB, TaskState.DONE, base));
+        logRepository.saveAll(logs);
+
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            JsonNode page = getJson("/api/tasks/" + taskA + "/ai/logs/page?limit=2"
+                    + (cursor != null ? "&cursor=" + cursor : ""));
+            page.get("items").forEach(item -> seen.add(item.get("id").asLong()));
+            cursor = page.get("hasNext").asBoolean() ? page.get("nextCursor").asText() : null;
+        } while (cursor != null);
+
+        assertThat(seen).hasSize(5).doesNotHaveDuplicates();
+        assertThat(seen.get(0)).isEqualTo(logs.get(4).getId());
+
+        JsonNode latest = getJson("/api/tasks/ai/logs/latest?taskIds=" + taskA + "," + taskB);
+        assertThat(latest).hasSize(2);
+        assertThat(latest.get(0).get("id").asLong()).isEqualTo(logs.get(4).getId());
+        assertThat(latest.get(1).get("suggestedState").asText()).isEqualTo("DONE");
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void testLogPage_OtherUsersTaskIs404() throws Exception {
+        mockMvc.perform(get("/api/tasks/999999/ai/logs/page"))
+                .andExpect(status().isNotFound());
+    }
+
+    private long createTask(String title) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(post("/api/tasks").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"" + title + "\"}"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString())
+                .get("id").asLong();
+    }
+
+    private JsonNode getJson(String url) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get(url))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+    }
+
+    private static AiDecisionLog log(long taskId, TaskState state, LocalDateTime createdAt) {
+        AiDecisionLog log = new AiDecisionLog();
+        log.setTaskId(taskId);
+        log.setSuggestedState(state);
+        log.setReason("test");
+        log.setCreatedAt(createdAt);
+        return log;
+    }
+}
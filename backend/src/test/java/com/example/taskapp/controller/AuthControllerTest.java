@@ -0,0 +1,44 @@
+package com.example.taskapp.controller;
+
+import com.example.taskapp.security.JwtUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.jdbc.Sql;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql("/data-test.sql")
+class AuthControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JwtUtil jwtUtil;
+
+    @Test
+    @WithMockUser(username = "user")
+    void testMe_DoesNotExposePassword() throws Exception {
+        JsonNode me = objectMapper.readTree(mockMvc.perform(get("/auth/me")
+                        .header("Authorization", "Bearer " + jwtUtil.generateToken("user")))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+
+        assertThat(me.get("email").asText()).isEqualTo("user");
+        assertThat(me.has("password")).isFalse();
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.taskapp.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.jdbc.Sql;
+
+import com.example.taskapp.entity.Subtask;
+import com.example.taskapp.repository.SubtaskRepository;
+import com.example.taskapp.repository.UserRepository;
+import com.example.taskapp.service.SubtaskService;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Sql("/data-test.sql")
+class SubtaskControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SubtaskService subtaskService;
+
+    @Autowired
+    private SubtaskRepository subtaskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    @WithMockUser(username = "user")
+    void testGenerateSubtasksJob_CompletesWithFallbackSubtasks() throws Exception {
+        long taskId = objectMapper.readTree(mockMvc.perform(post("/api/tasks").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"title\":\"資料作成\"}"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString())
+                .get("id").asLong();
+
+        JsonNode job = objectMapper.readTree(mockMvc.perform(
+                        post("/api/tasks/" + taskId + "/subtasks/generate/jobs").with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isAccepted()).andReturn().getResponse().getContentAsString());
+        String jobId = job.get("jobId").asText();
+
+        // API キー未設定なのでフォールバックのサブタスク3件で完了する
+        for (int i = 0; i < 50 && !job.get("status").asText().equals("SUCCEEDED"); i++) {
+            Thread.sleep(100);
+            job = objectMapper.readTree(mockMvc.perform(
+                            get("/api/tasks/" + taskId + "/subtasks/generate/jobs/" + jobId))
+                    .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+        }
+
+        assertThat(job.get("status").asText()).isEqualTo("SUCCEEDED");
+        assertThat(job.get("subtasks")).hasSize(3);
+        assertThat(objectMapper.readTree(mockMvc.perform(get("/api/tasks/" + taskId + "/subtasks"))
+                .andReturn().getResponse().getContentAsString())).hasSize(3);
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void testGetGenerateSubtasksJob_UnknownJobIs404() throws Exception {
+        long taskId = objectMapper.readTree(mockMvc.perform(post("/api/tasks").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"title\":\"x\"}"))
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+
+        mockMvc.perform(get("/api/tasks/" + taskId + "/subtasks/generate/jobs/unknown"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void testReadCache_InvalidatedBySubtaskAndTaskWrites() throws Exception {
+        long taskId = objectMapper.readTree(mockMvc.perform(post("/api/tasks").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"title\":\"cache\"}"))
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+
+        // 先に読んでキャッシュに載せておく
+        assertThat(read("/api/tasks/" + taskId + "/subtasks")).isEmpty();
+        assertThat(boardItem(taskId).get("subtaskTotal").asInt()).isZero();
+
+        JsonNode generated = objectMapper.readTree(mockMvc.perform(
+                        post("/api/tasks/" + taskId + "/subtasks/generate").with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+        assertThat(read("/api/tasks/" + taskId + "/subtasks")).hasSize(3);
+        assertThat(boardItem(taskId).get("subtaskTotal").asInt()).isEqualTo(3);
+
+        long subtaskId = generated.get(0).get("id").asLong();
+        mockMvc.perform(put("/api/tasks/" + taskId + "/subtasks/" + subtaskId).with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"done\",\"completed\":true}"))
+                .andExpect(status().isOk());
+        assertThat(boardItem(taskId).get("subtaskCompleted").asInt()).isEqualTo(1);
+        assertThat(read("/api/tasks/" + taskId + "/subtasks").findValuesAsText("title"))
+                .contains("done");
+
+        mockMvc.perform(delete("/api/tasks/" + taskId).with(csrf())).andExpect(status().isOk());
+        mockMvc.perform(get("/api/tasks/" + taskId + "/subtasks")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void testDeleteSubtask_UsesCompletedStateAtDeleteTime() throws Exception {
+        long taskId = objectMapper.readTree(mockMvc.perform(post("/api/tasks").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"title\":\"race\"}"))
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+        long subtaskId = objectMapper.readTree(mockMvc.perform(
+                        post("/api/tasks/" + taskId + "/subtasks/generate").with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andReturn().getResponse().getContentAsString()).get(0).get("id").asLong();
+
+        // 未完了の時点で読んだエンティティ（削除側）の後に、完了への切り替えがコミットされる
+        Subtask stale = subtaskRepository.findById(subtaskId).orElseThrow();
+        mockMvc.perform(put("/api/tasks/" + taskId + "/subtasks/" + subtaskId).with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"done\",\"completed\":true}"))
+                .andExpect(status().isOk());
+        assertThat(boardItem(taskId).get("subtaskCompleted").asInt()).isEqualTo(1);
+
+        subtaskService.delete(stale, userRepository.findByEmail("user").orElseThrow());
+
+        JsonNode item = boardItem(taskId);
+        assertThat(item.get("subtaskTotal").asInt()).isEqualTo(2);
+        assertThat(item.get("subtaskCompleted").asInt()).isZero();
+    }
+
+    private JsonNode read(String path) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get(path))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+    }
+
+    private JsonNode boardItem(long taskId) throws Exception {
+        for (JsonNode item : read("/api/tasks/board")) {
+            if (item.get("id").asLong() == taskId) {
+                return item;
+            }
+        }
+        throw new AssertionError("task " + taskId + " not on board");
+    }
+}
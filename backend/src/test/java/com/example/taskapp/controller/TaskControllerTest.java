@@ -1,15 +1,40 @@
 package com.example.taskapp.controller;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.context.jdbc.Sql;
 
+import com.example.taskapp.entity.AiDecisionLog;
+import com.example.taskapp.entity.TaskState;
+import com.example.taskapp.exception.ApiException;
+import com.example.taskapp.repository.AiDecisionLogRepository;
+import com.example.taskapp.repository.SubtaskRepository;
+import com.example.taskapp.service.TaskEventHub;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -21,9 +46,258 @@ class TaskControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private SubtaskRepository subtaskRepository;
+
+    @Autowired
+    private AiDecisionLogRepository aiDecisionLogRepository;
+
+    @Autowired
+    private TaskEventHub taskEventHub;
+
     @Test
     @WithMockUser(username = "user") // auth.getName() = "user"
     void testGetTasks_Returns200() throws Exception {
         mockMvc.perform(get("/api/tasks")).andExpect(status().isOk());
     }
+
+    @Test
+    @WithMockUser(username = "user")
+    void testMissingTask_ReturnsProblemDetail() throws Exception {
+        String body = mockMvc.perform(put("/api/tasks/999999/state").with(csrf())
+                        .header("X-Request-Id", "req-404")
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"state\":\"DONE\"}"))
+                .andExpect(status().isNotFound())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_PROBLEM_JSON))
+                .andReturn().getResponse().getContentAsString();
+
+        JsonNode problem = objectMapper.readTree(body);
+        assertThat(problem.get("status").asInt()).isEqualTo(404);
+        assertThat(problem.get("code").asText()).isEqualTo("TASK_NOT_FOUND");
+        assertThat(problem.get("instance").asText()).isEqualTo("/api/tasks/999999/state");
+        assertThat(problem.get("requestId").asText()).isEqualTo("req-404");
+
+        // 想定内のエラーはスタックトレースを取らない
+        assertThat(ApiException.notFound("TASK_NOT_FOUND").getStackTrace()).isEmpty();
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void testRequestId_IsPropagatedOrGenerated() throws Exception {
+        // 妥当な X-Request-Id はそのまま返す
+        String echoed = mockMvc.perform(get("/api/tasks").header("X-Request-Id", "req-123"))
+                .andExpect(status().isOk()).andReturn().getResponse().getHeader("X-Request-Id");
+        assertThat(echoed).isEqualTo("req-123");
+
+        // 不正な値（改行入り）や未指定なら生成する
+        String generated = mockMvc.perform(get("/api/tasks").header("X-Request-Id", "a\nb"))
+                .andExpect(status().isOk()).andReturn().getResponse().getHeader("X-Request-Id");
+        assertThat(generated).isNotBlank().isNotEqualTo("a\nb");
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void testETagAndChanges_ReturnOnlyWhatChanged() throws Exception {
+        String etag = mockMvc.perform(get("/api/tasks")).andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertThat(etag).isNotBlank();
+        mockMvc.perform(get("/api/tasks").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        // since=0 は全件
+        JsonNode initial = changes(0);
+        assertThat(initial.get("full").asBoolean()).isTrue();
+        long version = initial.get("version").asLong();
+
+        long keep = createTaskId("keep");
+        long gone = createTaskId("gone");
+        mockMvc.perform(get("/api/tasks").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+
+        JsonNode added = changes(version);
+        assertThat(added.get("full").asBoolean()).isFalse();
+        assertThat(added.get("tasks").findValuesAsText("title")).containsExactly("keep", "gone");
+        version = added.get("version").asLong();
+
+        mockMvc.perform(delete("/api/tasks/" + gone).with(csrf())).andExpect(status().isOk());
+        mockMvc.perform(put("/api/tasks/" + keep + "/state").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"state\":\"EXECUTING\"}"))
+                .andExpect(status().isOk());
+
+        JsonNode updated = changes(version);
+        assertThat(updated.get("tasks")).hasSize(1);
+        assertThat(updated.get("tasks").get(0).get("state").asText()).isEqualTo("EXECUTING");
+        assertThat(updated.get("deleted").get(0).asLong()).isEqualTo(gone);
+
+        // 最新の version なら空
+        JsonNode none = changes(updated.get("version").asLong());
+        assertThat(none.get("tasks")).isEmpty();
+        assertThat(none.get("deleted")).isEmpty();
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void testStreamEvents_PushesChangedTaskId() throws Exception {
+        int subscribersBefore = taskEventHub.subscriberCount();
+        MvcResult stream = mockMvc.perform(get("/api/tasks/events"))
+                .andExpect(request().asyncStarted())
+                .andExpect(header().string("X-Accel-Buffering", "no"))
+                .andReturn();
+
+        long taskId = createTaskId("ライブ更新");
+
+        // 送信は別スレッドなので届くまで待つ
+        String body = "";
+        for (int i = 0; i < 50 && !body.contains("\"taskId\":" + taskId); i++) {
+            Thread.sleep(100);
+            body = stream.getResponse().getContentAsString();
+        }
+        assertThat(stream.getResponse().getContentType()).startsWith("text/event-stream");
+        assertThat(body).contains("event:ready");
+        assertThat(body).contains("event:task");
+        assertThat(body).contains("\"taskId\":" + taskId);
+
+        // 接続を閉じたら購読も外れる（コンテキストを共有する後のテストに残さない）
+        stream.getRequest().getAsyncContext().complete();
+        for (int i = 0; i < 50 && taskEventHub.subscriberCount() != subscribersBefore; i++) {
+            Thread.sleep(100);
+        }
+        assertThat(taskEventHub.subscriberCount()).isEqualTo(subscribersBefore);
+    }
+
+    private JsonNode changes(long since) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(get("/api/tasks/changes")
+                        .param("since", String.valueOf(since)))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+    }
+
+    private long createTaskId(String title) throws Exception {
+        return objectMapper.readTree(mockMvc.perform(post("/api/tasks").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\":\"" + title + "\"}"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString())
+                .get("id").asLong();
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void testGetTaskPage_WalksAllTasksByDueDate() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            String body = i == 2
+                    ? "{\"title\":\"t" + i + "\",\"priority\":\"high\"}"
+                    : "{\"title\":\"t" + i + "\",\"priority\":\"low\",\"dueDate\":\""
+                            + LocalDate.of(2030, 1, 5 - i) + "\"}";
+            mockMvc.perform(post("/api/tasks").with(csrf()).contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isOk());
+        }
+
+        int total = objectMapper.readTree(mockMvc.perform(get("/api/tasks"))
+                .andReturn().getResponse().getContentAsString()).size();
+
+        // limit=2 でカーソルを辿り、重複・欠落なく締切順に並ぶこと
+        List<JsonNode> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            var req = get("/api/tasks/page").param("sort", "DUE_DATE").param("limit", "2");
+            if (cursor != null) {
+                req.param("cursor", cursor);
+            }
+            JsonNode page = objectMapper.readTree(mockMvc.perform(req).andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            page.get("items").forEach(seen::add);
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+        } while (cursor != null);
+
+        assertThat(seen).hasSize(total);
+        assertThat(new HashSet<>(seen.stream().map(n -> n.get("id").asLong()).toList()))
+                .hasSize(total);
+
+        List<String> dueDates = seen.stream()
+                .map(n -> n.get("dueDate").isNull() ? null : n.get("dueDate").asText()).toList();
+        int firstNull = dueDates.indexOf(null);
+        List<String> dated = firstNull < 0 ? dueDates : dueDates.subList(0, firstNull);
+        assertThat(dated).isSorted();
+        if (firstNull >= 0) {
+            assertThat(dueDates.subList(firstNull, dueDates.size())).containsOnlyNulls();
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void testGetTaskPage_RejectsCursorFromOtherSort() throws Exception {
+        String cursor = java.util.Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("PRIORITY|0|1".getBytes());
+        mockMvc.perform(get("/api/tasks/page").param("sort", "DUE_DATE").param("cursor", cursor))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void testDeleteTask_RemovesSubtasksAndAiLogs() throws Exception {
+        long taskId = objectMapper.readTree(mockMvc.perform(post("/api/tasks").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"title\":\"削除対象\"}"))
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+
+        // API キー未設定なのでフォールバックのサブタスク3件が作られる
+        mockMvc.perform(post("/api/tasks/" + taskId + "/subtasks/generate").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andExpect(status().isOk());
+        AiDecisionLog log = new AiDecisionLog();
+        log.setTaskId(taskId);
+        log.setSuggestedState(TaskState.PENDING);
+        log.setCreatedAt(LocalDateTime.now());
+        aiDecisionLogRepository.save(log);
+
+        mockMvc.perform(delete("/api/tasks/" + taskId).with(csrf())).andExpect(status().isOk());
+
+        assertThat(subtaskRepository.findAll())
+                .noneMatch(subtask -> subtask.getTask().getId() == taskId);
+        assertThat(aiDecisionLogRepository.findByTaskIdOrderByCreatedAtDesc(taskId)).isEmpty();
+    }
+
+    @Test
+    @WithMockUser(username = "user")
+    void testGetBoard_ReturnsSubtaskRollups() throws Exception {
+        long taskId = objectMapper.readTree(mockMvc.perform(post("/api/tasks").with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"title\":\"ボード\"}"))
+                .andReturn().getResponse().getContentAsString()).get("id").asLong();
+        JsonNode subtasks = objectMapper.readTree(mockMvc.perform(
+                        post("/api/tasks/" + taskId + "/subtasks/generate").with(csrf())
+                                .contentType(MediaType.APPLICATION_JSON).content("{}"))
+                .andReturn().getResponse().getContentAsString());
+        mockMvc.perform(put("/api/tasks/" + taskId + "/subtasks/" + subtasks.get(0).get("id").asLong()).with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"title\":\"済\",\"completed\":true}"))
+                .andExpect(status().isOk());
+
+        JsonNode board = objectMapper.readTree(mockMvc.perform(get("/api/tasks/board?includeSubtasks=true"))
+                .andExpect(status().isOk()).andReturn().getResponse().getContentAsString());
+
+        JsonNode item = null;
+        for (JsonNode node : board) {
+            if (node.get("id").asLong() == taskId) {
+                item = node;
+            }
+        }
+        assertThat(item).isNotNull();
+        assertThat(item.get("subtaskTotal").asLong()).isEqualTo(3);
+        assertThat(item.get("subtaskCompleted").asLong()).isEqualTo(1);
+        assertThat(item.get("subtasks")).hasSize(3);
+
+        // 完了済みサブタスクを削除するとカウンタも両方減る
+        mockMvc.perform(delete("/api/tasks/" + taskId + "/subtasks/" + subtasks.get(0).get("id").asLong())
+                        .with(csrf()))
+                .andExpect(status().isOk());
+        JsonNode after = objectMapper.readTree(mockMvc.perform(get("/api/tasks/board"))
+                .andReturn().getResponse().getContentAsString());
+        for (JsonNode node : after) {
+            if (node.get("id").asLong() == taskId) {
+                assertThat(node.get("subtaskTotal").asInt()).isEqualTo(2);
+                assertThat(node.get("subtaskCompleted").asInt()).isEqualTo(0);
+                assertThat(node.get("subtasks").isNull()).isTrue();
+            }
+        }
+    }
 }
@@ -0,0 +1,167 @@
+package com.example.taskapp.repository;
+
+import com.example.taskapp.entity.AiDecisionLog;
+import com.example.taskapp.entity.Subtask;
+import com.example.taskapp.entity.Task;
+import com.example.taskapp.entity.TaskState;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * リポジトリの saveAll が実際に JDBC バッチになっているか（application.properties の
+ * hibernate.jdbc.batch_size / order_inserts とシーケンスの pooled-lo の組み合わせ）を、
+ * DataSource のプロキシ（datasource-proxy）で発行された文を数えて確かめる。
+ * 見るのは発行された文だけなので、flush したらロールバックして共有のコンテキストに行を残さない。
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BatchInsertTest {
+
+    // hibernate.jdbc.batch_size / シーケンスの allocationSize と同じ
+    private static final int BATCH_SIZE = 50;
+    private static final int ROWS = 120;
+
+    private record Execution(String sql, boolean batch, int batchSize) {
+    }
+
+    private final List<Execution> executions = new CopyOnWriteArrayList<>();
+    private long tasksBefore;
+    private long logsBefore;
+    private final QueryExecutionListener recorder = new QueryExecutionListener() {
+        @Override
+        public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        }
+
+        @Override
+        public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+            queryInfoList.forEach(q -> executions.add(new Execution(
+                    q.getQuery().toLowerCase(Locale.ROOT), execInfo.isBatch(),
+                    execInfo.getBatchSize())));
+        }
+    };
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private SubtaskRepository subtaskRepository;
+
+    @Autowired
+    private AiDecisionLogRepository logRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void record() {
+        // LoggingConfig が DataSource をプロキシしている（app.logging.sql.enabled）
+        assertThat(dataSource).isInstanceOf(ProxyDataSource.class);
+        tasksBefore = taskRepository.count();
+        logsBefore = logRepository.count();
+        ((ProxyDataSource) dataSource).getProxyConfig().getQueryListener().addListener(recorder);
+    }
+
+    @AfterEach
+    void stopRecording() {
+        ((ProxyDataSource) dataSource).getProxyConfig().getQueryListener().getListeners()
+                .remove(recorder);
+    }
+
+    @AfterEach
+    void leavesNoRows() {
+        assertThat(taskRepository.count()).isEqualTo(tasksBefore);
+        assertThat(logRepository.count()).isEqualTo(logsBefore);
+    }
+
+    @Test
+    void saveAll_TasksAndSubtasksAreInsertedInJdbcBatches() {
+        transactionTemplate.executeWithoutResult(status -> {
+            List<Task> tasks = new ArrayList<>();
+            for (int i = 0; i < ROWS; i++) {
+                tasks.add(task("batch " + i));
+            }
+            taskRepository.saveAll(tasks);
+
+            List<Subtask> subtasks = new ArrayList<>();
+            for (int i = 0; i < ROWS; i++) {
+                Subtask subtask = new Subtask();
+                subtask.setTitle("sub " + i);
+                subtask.setTask(tasks.get(0));
+                subtasks.add(subtask);
+            }
+            subtaskRepository.saveAll(subtasks);
+            subtaskRepository.flush();
+            status.setRollbackOnly();
+        });
+
+        assertBatched("tasks");
+        assertBatched("subtasks");
+    }
+
+    @Test
+    void saveAll_AiDecisionLogsAreInsertedInJdbcBatches() {
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            List<AiDecisionLog> logs = new ArrayList<>();
+            for (int i = 0; i < ROWS; i++) {
+                AiDecisionLog log = new AiDecisionLog();
+                log.setTaskId((long) i);
+                log.setSuggestedState(TaskState.EXECUTING);
+                log.setReason("batch");
+                log.setCreatedAt(now);
+                logs.add(log);
+            }
+            logRepository.saveAll(logs);
+            logRepository.flush();
+            status.setRollbackOnly();
+        });
+
+        assertBatched("ai_decision_logs");
+    }
+
+    // INSERT は batch_size 件ずつの executeBatch、ID はシーケンス1回で allocationSize 件払い出す
+    private void assertBatched(String table) {
+        List<Execution> inserts = executions.stream()
+                .filter(e -> e.sql().startsWith("insert into " + table + " ")).toList();
+        assertThat(inserts).isNotEmpty().allMatch(Execution::batch);
+        assertThat(inserts.stream().mapToInt(Execution::batchSize).sum()).isEqualTo(ROWS);
+        assertThat(inserts).hasSize((ROWS + BATCH_SIZE - 1) / BATCH_SIZE);
+
+        // subtasks_seq を tasks_seq として数えない
+        Pattern sequence = Pattern.compile("\\b" + table + "_seq\\b");
+        long sequenceCalls = executions.stream()
+                .filter(e -> !e.sql().startsWith("insert") && sequence.matcher(e.sql()).find())
+                .count();
+        assertThat(sequenceCalls).isLessThanOrEqualTo((ROWS + BATCH_SIZE - 1) / BATCH_SIZE + 1);
+    }
+
+    private static Task task(String title) {
+        Task task = new Task();
+        task.setTitle(title);
+        task.setState(TaskState.PENDING);
+        task.setCreatedAt(LocalDateTime.now());
+        return task;
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.taskapp.service;
+
+import com.example.taskapp.entity.AiDecisionLog;
+import com.example.taskapp.entity.Task;
+import com.example.taskapp.entity.TaskState;
+import com.example.taskapp.repository.AiDecisionLogRepository;
+import com.example.taskapp.repository.TaskRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "app.ai.log-retention.enabled=false",
+        "app.ai.log-retention.max-per-task=3",
+        "app.ai.log-retention.max-age=30d",
+        "app.ai.log-retention.batch-size=2"
+})
+@ActiveProfiles("test")
+class AiDecisionLogRetentionServiceTest {
+
+    @Autowired
+    private AiDecisionLogRetentionService retentionService;
+
+    @Autowired
+    private AiDecisionLogRepository logRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Test
+    void run_TrimsHistoryPurgesExpiredAndOrphanedLogs() {
+        Task task = new Task();
+        task.setTitle("retention");
+        task.setState(TaskState.PENDING);
+        task.setCreatedAt(LocalDateTime.now());
+        task = taskRepository.save(task);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<AiDecisionLog> logs = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            logs.add(log(task.getId(), now.minusMinutes(i)));
+        }
+        logs.add(log(task.getId(), now.minusDays(40))); // 期限切れ
+        logs.add(log(-1L, now)); // 孤児
+        logRepository.saveAll(logs);
+
+        retentionService.run();
+
+        List<AiDecisionLog> remaining = logRepository.findByTaskIdOrderByCreatedAtDesc(task.getId());
+        assertThat(remaining).hasSize(3);
+        assertThat(remaining.get(remaining.size() - 1).getCreatedAt())
+                .isAfter(now.minusMinutes(3));
+        assertThat(logRepository.findByTaskIdOrderByCreatedAtDesc(-1L)).isEmpty();
+    }
+
+    private static AiDecisionLog log(Long taskId, LocalDateTime createdAt) {
+        AiDecisionLog log = new AiDecisionLog();
+        log.setTaskId(taskId);
+        log.setSuggestedState(TaskState.PENDING);
+        log.setReason("r");
+        log.setCreatedAt(createdAt);
+        return log;
+    }
+}
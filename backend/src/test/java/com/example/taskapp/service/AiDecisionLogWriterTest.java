@@ -0,0 +1,101 @@
+package com.example.taskapp.service;
+
+import com.example.taskapp.entity.AiDecisionLog;
+import com.example.taskapp.repository.AiDecisionLogRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AiDecisionLogWriterTest {
+
+    private final AiDecisionLogRepository repository = mock(AiDecisionLogRepository.class);
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+
+    @Test
+    void writesInBatchesAndFlushesOnShutdown() throws Exception {
+        when(repository.saveAll(anyList())).thenAnswer(inv -> {
+            batchSizes.add(((List<?>) inv.getArgument(0)).size());
+            return inv.getArgument(0);
+        });
+        AiDecisionLogWriter writer = new AiDecisionLogWriter(repository, 1000, 50,
+                Duration.ofMillis(200), AiDecisionLogWriter.OverflowPolicy.BLOCK,
+                Duration.ofMillis(50));
+
+        for (int i = 0; i < 120; i++) {
+            writer.append(new AiDecisionLog());
+        }
+        writer.shutdown();
+
+        assertThat(batchSizes.stream().mapToInt(Integer::intValue).sum()).isEqualTo(120);
+        assertThat(batchSizes).allMatch(size -> size <= 50);
+        assertThat(batchSizes.size()).isLessThan(120);
+        assertThat(writer.writtenCount()).isEqualTo(120);
+        assertThat(writer.pendingCount()).isZero();
+    }
+
+    @Test
+    void shutdownLetsAnInFlightWriteFinish() throws Exception {
+        // 書き込み中に停止を始め、割り込まれていないことを確かめる
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.saveAll(anyList())).thenAnswer(inv -> {
+            writing.countDown();
+            release.await();
+            if (Thread.currentThread().isInterrupted()) {
+                throw new IllegalStateException("interrupted during write");
+            }
+            return inv.getArgument(0);
+        });
+        AiDecisionLogWriter writer = new AiDecisionLogWriter(repository, 1000, 50,
+                Duration.ofMillis(20), AiDecisionLogWriter.OverflowPolicy.BLOCK,
+                Duration.ofMillis(50));
+
+        writer.append(new AiDecisionLog());
+        writing.await();
+        writer.append(new AiDecisionLog());
+
+        Thread stopper = new Thread(() -> {
+            try {
+                writer.shutdown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        stopper.start();
+        Thread.sleep(100);
+        release.countDown();
+        stopper.join();
+
+        assertThat(writer.writtenCount()).isEqualTo(2);
+        assertThat(writer.droppedCount()).isZero();
+    }
+
+    @Test
+    void dropsWhenQueueIsFullWithDropPolicy() throws Exception {
+        // 書き込みを止めてキューを溢れさせる
+        CountDownLatch release = new CountDownLatch(1);
+        when(repository.saveAll(anyList())).thenAnswer(inv -> {
+            release.await();
+            return inv.getArgument(0);
+        });
+        AiDecisionLogWriter writer = new AiDecisionLogWriter(repository, 5, 1,
+                Duration.ofMillis(10), AiDecisionLogWriter.OverflowPolicy.DROP,
+                Duration.ZERO);
+
+        for (int i = 0; i < 20; i++) {
+            writer.append(new AiDecisionLog());
+        }
+
+        assertThat(writer.droppedCount()).isGreaterThan(0);
+        release.countDown();
+        writer.shutdown();
+    }
+}
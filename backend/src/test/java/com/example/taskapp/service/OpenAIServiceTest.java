@@ -0,0 +1,75 @@
+package com.example.taskapp.service;
+
+import com.example.taskapp.client.OpenAiClient;
+import com.fasterxml.jackson.databind.node.TextNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OpenAIServiceTest {
+
+    private final OpenAiClient openAiClient = mock(OpenAiClient.class);
+    private final AiResultCache cache =
+            new AiResultCache(100, Duration.ofMinutes(1), 100, Duration.ofMinutes(1));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final OpenAIService service = new OpenAIService(openAiClient, cache, meterRegistry);
+
+    @Test
+    void generateSubtasks_SecondCallIsServedFromCache() {
+        when(openAiClient.chatCompletions(any())).thenReturn(Mono.just(reply("[\"調査\", \"設計\"]")));
+
+        assertThat(service.generateSubtasks("資料作成", "来週の会議用")).containsExactly("調査", "設計");
+        // 空白の違いは同じ入力とみなす
+        assertThat(service.generateSubtasks(" 資料作成 ", "来週の会議用")).containsExactly("調査", "設計");
+
+        verify(openAiClient, times(1)).chatCompletions(any());
+        assertThat(cache.subtaskStats().hitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void generateSubtasks_DoesNotCacheDefaultOrEmptyResults() {
+        // 一覧にならない応答は仮の名前、空配列は空のまま返すが、どちらもキャッシュしない
+        when(openAiClient.chatCompletions(any()))
+                .thenReturn(Mono.just(reply("")))
+                .thenReturn(Mono.just(reply("[]")))
+                .thenReturn(Mono.just(reply("[\"調査\"]")));
+
+        assertThat(service.generateSubtasks("資料作成", null))
+                .containsExactly("サブタスク1", "サブタスク2", "サブタスク3");
+        assertThat(service.generateSubtasks("資料作成", null)).isEmpty();
+        assertThat(service.generateSubtasks("資料作成", null)).containsExactly("調査");
+
+        verify(openAiClient, times(3)).chatCompletions(any());
+        assertThat(cache.subtaskCache().estimatedSize()).isEqualTo(1);
+    }
+
+    @Test
+    void chatAsync_RecordsCancelledCallsInRequestTimer() {
+        when(openAiClient.chatCompletions(any()))
+                .thenReturn(Mono.just(reply("{}")))
+                .thenReturn(Mono.never());
+
+        service.chatAsync("ok").block();
+        // 呼び出し側の timeout で打ち切られた呼び出しも openai.requests に残す
+        assertThat(service.chatAsync("slow").timeout(Duration.ofMillis(50))
+                .onErrorResume(e -> Mono.empty()).block()).isNull();
+
+        assertThat(meterRegistry.get("openai.requests").tag("operation", "chat")
+                .tag("outcome", "success").timer().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("openai.requests").tag("operation", "chat")
+                .tag("outcome", "cancelled").timer().count()).isEqualTo(1);
+    }
+
+    private static String reply(String content) {
+        return "{\"choices\":[{\"message\":{\"content\":" + TextNode.valueOf(content) + "}}]}";
+    }
+}
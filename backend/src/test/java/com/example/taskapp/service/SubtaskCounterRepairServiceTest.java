@@ -0,0 +1,71 @@
+package com.example.taskapp.service;
+
+import com.example.taskapp.entity.Subtask;
+import com.example.taskapp.entity.Task;
+import com.example.taskapp.entity.TaskState;
+import com.example.taskapp.repository.SubtaskRepository;
+import com.example.taskapp.repository.TaskRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "app.subtask-counters.repair.enabled=false",
+        "app.subtask-counters.repair.batch-size=2"
+})
+@ActiveProfiles("test")
+class SubtaskCounterRepairServiceTest {
+
+    @Autowired
+    private SubtaskCounterRepairService repairService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private SubtaskRepository subtaskRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void run_RecomputesDriftedCounters() {
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Task task = new Task();
+            task.setTitle("repair" + i);
+            task.setState(TaskState.PENDING);
+            task.setCreatedAt(LocalDateTime.now());
+            tasks.add(taskRepository.save(task));
+        }
+
+        // カウンタを通さずにサブタスクを直接保存してずれを作る
+        for (int i = 0; i < 3; i++) {
+            Subtask subtask = new Subtask();
+            subtask.setTitle("s" + i);
+            subtask.setCompleted(i == 0);
+            subtask.setTask(tasks.get(1));
+            subtaskRepository.save(subtask);
+        }
+        jdbcTemplate.update("UPDATE tasks SET subtask_total = 7 WHERE id = ?", tasks.get(2).getId());
+
+        assertThat(repairService.run()).isGreaterThanOrEqualTo(2);
+
+        assertThat(counters(tasks.get(0))).containsExactly(0, 0);
+        assertThat(counters(tasks.get(1))).containsExactly(3, 1);
+        assertThat(counters(tasks.get(2))).containsExactly(0, 0);
+    }
+
+    private List<Integer> counters(Task task) {
+        Task reloaded = taskRepository.findById(task.getId()).orElseThrow();
+        return List.of(reloaded.getSubtaskTotal(), reloaded.getSubtaskCompleted());
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.taskapp.service;
+
+import com.example.taskapp.dto.GenerateSubtasksRequest;
+import com.example.taskapp.entity.Task;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class SubtaskGenerationJobServiceTest {
+
+    private final SubtaskService subtaskService = mock(SubtaskService.class);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final SubtaskGenerationJobService jobService = new SubtaskGenerationJobService(
+            subtaskService, 2, 10, Duration.ofMinutes(1), new MockEnvironment(), r -> r);
+
+    @AfterEach
+    void stop() throws InterruptedException {
+        release.countDown();
+        jobService.shutdown();
+    }
+
+    @Test
+    void submit_SharesJobOnlyForTheSameContent() {
+        // 生成を止めておき、実行中のジョブに重複リクエストを送る
+        when(subtaskService.generateAndSave(any(), any())).thenAnswer(inv -> {
+            release.await();
+            return List.of();
+        });
+        Task task = new Task();
+        task.setId(1L);
+        task.setTitle("資料作成");
+
+        SubtaskGenerationJob first = jobService.submit(task, request(null));
+        SubtaskGenerationJob duplicate = jobService.submit(task, request("資料作成"));
+        SubtaskGenerationJob other = jobService.submit(task, request("会議準備"));
+
+        // タイトル未指定はタスクのタイトルで生成するので同じ内容
+        assertThat(duplicate).isSameAs(first);
+        assertThat(jobService.find(duplicate.getId())).contains(first);
+        // 内容が違えば別のジョブ
+        assertThat(other).isNotSameAs(first);
+        assertThat(jobService.find(other.getId())).contains(other);
+
+        release.countDown();
+        verify(subtaskService, timeout(5000).times(2)).generateAndSave(any(), any());
+    }
+
+    private static GenerateSubtasksRequest request(String title) {
+        GenerateSubtasksRequest request = new GenerateSubtasksRequest();
+        request.setTaskTitle(title);
+        return request;
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.taskapp.service;
+
+import com.example.taskapp.dto.TaskAiDecisionBatchItem;
+import com.example.taskapp.entity.AiDecisionLog;
+import com.example.taskapp.entity.Task;
+import com.example.taskapp.entity.TaskState;
+import com.example.taskapp.exception.ApiException;
+import com.example.taskapp.repository.AiDecisionLogRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TaskAiDecisionServiceTest {
+
+    private final OpenAIService openAIService = mock(OpenAIService.class);
+    private final AiDecisionLogWriter logWriter = mock(AiDecisionLogWriter.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final TaskAiDecisionService service = new TaskAiDecisionService(openAIService,
+            mock(AiDecisionLogRepository.class), logWriter, new AiResultCache(100, Duration.ofMinutes(1), 100, Duration.ofMinutes(1)),
+            mock(TaskEventHub.class), meterRegistry, 100, 3000, 20, 4, 200, Duration.ofSeconds(5), 1, 1,
+            Duration.ofMinutes(1));
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void decideAll_PacksTasksIntoOneCallAndFallsBackPerTask() {
+        Task answered = task(1L, "資料作成", "high", TaskState.PENDING);
+        Task missing = task(2L, "会議準備", "high", TaskState.PENDING);
+        Task done = task(3L, "完了済み", "low", TaskState.DONE);
+
+        // AI は taskId=1 にしか答えない
+        when(openAIService.chatAsync(anyString())).thenReturn(Mono.just(
+                "{\"decisions\":[{\"taskId\":1,\"nextState\":\"EXECUTING\",\"reason\":\"急ぎ\"}]}"));
+
+        List<TaskAiDecisionBatchItem> items = service.decideAll(List.of(answered, missing, done));
+
+        assertThat(items).extracting(TaskAiDecisionBatchItem::getTaskId).containsExactly(1L, 2L, 3L);
+        assertThat(items.get(0).isFallback()).isFalse();
+        assertThat(items.get(0).getReason()).isEqualTo("急ぎ");
+        assertThat(items.get(1).isFallback()).isTrue();
+        assertThat(items.get(1).getNextState()).isEqualTo(TaskState.EXECUTING);
+        assertThat(items.get(2).getNextState()).isEqualTo(TaskState.DONE);
+
+        // 完了済みタスクは AI に送らず、未完了2件を1回の呼び出しにまとめる
+        verify(openAIService, times(1)).chatAsync(anyString());
+
+        ArgumentCaptor<List<AiDecisionLog>> logs = ArgumentCaptor.forClass(List.class);
+        verify(logWriter, times(1)).appendAll(logs.capture());
+        assertThat(logs.getValue()).hasSize(3);
+
+        // フォールバックは理由ごとに数える
+        assertThat(meterRegistry.counter("ai.decision.fallback", "mode", "batch", "reason", "missing")
+                .count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("ai.decision.fallback", "mode", "batch", "reason", "done")
+                .count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void decideAll_UsesCachedDecisionOnSecondCall() {
+        Task task = task(1L, "資料作成", "high", TaskState.PENDING);
+        when(openAIService.chatAsync(anyString())).thenReturn(Mono.just(
+                "{\"decisions\":[{\"taskId\":1,\"nextState\":\"EXECUTING\",\"reason\":\"急ぎ\"}]}"));
+
+        service.decideAll(List.of(task));
+        List<TaskAiDecisionBatchItem> second = service.decideAll(List.of(task));
+
+        assertThat(second.get(0).getReason()).isEqualTo("急ぎ");
+        verify(openAIService, times(1)).chatAsync(anyString());
+    }
+
+    @Test
+    void decideAll_KeepsEachChunksOwnAnswersAndCachesApartFromSingleDecisions() {
+        // 1回の呼び出しに1件ずつ詰める
+        TaskAiDecisionService perTask = new TaskAiDecisionService(openAIService,
+                mock(AiDecisionLogRepository.class), logWriter,
+                new AiResultCache(100, Duration.ofMinutes(1), 100, Duration.ofMinutes(1)),
+                mock(TaskEventHub.class), meterRegistry, 100, 3000, 1, 4, 200,
+                Duration.ofSeconds(5), 20, 10, Duration.ofMinutes(1));
+        Task first = task(1L, "資料作成", "high", TaskState.PENDING);
+        Task second = task(2L, "会議準備", "high", TaskState.PENDING);
+
+        // 1件目のチャンクの回答には、聞いていない taskId=2 が紛れ込んでいる
+        when(openAIService.chatAsync(contains("taskId: 1,"))).thenReturn(Mono.just(
+                "{\"decisions\":[{\"taskId\":1,\"nextState\":\"EXECUTING\",\"reason\":\"A\"},"
+                        + "{\"taskId\":2,\"nextState\":\"DONE\",\"reason\":\"幻覚\"}]}"));
+        when(openAIService.chatAsync(contains("taskId: 2,"))).thenReturn(Mono.just(
+                "{\"decisions\":[{\"taskId\":2,\"nextState\":\"PENDING\",\"reason\":\"B\"}]}"));
+
+        List<TaskAiDecisionBatchItem> items = perTask.decideAll(List.of(first, second));
+        assertThat(items).extracting(TaskAiDecisionBatchItem::getReason).containsExactly("A", "B");
+
+        // 一括判断の結果は単体判断のキャッシュには入らない（プロンプトが違う）
+        when(openAIService.chat(anyString()))
+                .thenReturn("{\"nextState\":\"EXECUTING\",\"reason\":\"単体\"}");
+        assertThat(perTask.decide(first).getReason()).isEqualTo("単体");
+        verify(openAIService, times(1)).chat(anyString());
+    }
+
+    @Test
+    void decideAllPublic_CapsAiTasksAndRateLimits() {
+        Task first = task(1L, "資料作成", "high", TaskState.PENDING);
+        Task second = task(2L, "会議準備", "high", TaskState.PENDING);
+        when(openAIService.chatAsync(anyString())).thenReturn(Mono.just(
+                "{\"decisions\":[{\"taskId\":1,\"nextState\":\"EXECUTING\",\"reason\":\"急ぎ\"}]}"));
+
+        // AI に送るのは1件まで。残りはルールベース
+        List<TaskAiDecisionBatchItem> items = service.decideAllPublic(List.of(first, second));
+        assertThat(items.get(0).isFallback()).isFalse();
+        assertThat(items.get(1).isFallback()).isTrue();
+        assertThat(meterRegistry.counter("ai.decision.fallback", "mode", "batch", "reason", "limit")
+                .count()).isEqualTo(1.0);
+
+        // 呼び出し頻度の上限（1回 / 分）を超えると 429
+        assertThatThrownBy(() -> service.decideAllPublic(List.of(first)))
+                .isInstanceOfSatisfying(ApiException.class,
+                        e -> assertThat(e.getStatusCode().value()).isEqualTo(429));
+        verify(openAIService, times(1)).chatAsync(anyString());
+    }
+
+    @Test
+    void decideAll_CapsAiTasksAndGivesUpOnSlicesPastTheDeadline() {
+        // 1回の呼び出しに1件ずつ、AI に送るのは2件まで、全体で 300ms まで待つ
+        TaskAiDecisionService capped = new TaskAiDecisionService(openAIService,
+                mock(AiDecisionLogRepository.class), logWriter,
+                new AiResultCache(100, Duration.ofMinutes(1), 100, Duration.ofMinutes(1)),
+                mock(TaskEventHub.class), meterRegistry, 100, 3000, 1, 4, 2,
+                Duration.ofMillis(300), 20, 10, Duration.ofMinutes(1));
+        Task answered = task(1L, "資料作成", "high", TaskState.PENDING);
+        Task slow = task(2L, "会議準備", "high", TaskState.PENDING);
+        Task overCap = task(3L, "経費精算", "low", TaskState.PENDING);
+
+        when(openAIService.chatAsync(contains("taskId: 1,"))).thenReturn(Mono.just(
+                "{\"decisions\":[{\"taskId\":1,\"nextState\":\"EXECUTING\",\"reason\":\"急ぎ\"}]}"));
+        // 返ってこない呼び出しは deadline で打ち切る
+        when(openAIService.chatAsync(contains("taskId: 2,"))).thenReturn(Mono.never());
+
+        List<TaskAiDecisionBatchItem> items = capped.decideAll(List.of(answered, slow, overCap));
+
+        assertThat(items.get(0).isFallback()).isFalse();
+        assertThat(items.get(1).isFallback()).isTrue();
+        assertThat(items.get(2).isFallback()).isTrue();
+        assertThat(meterRegistry.counter("ai.decision.fallback", "mode", "batch", "reason", "timeout")
+                .count()).isEqualTo(1.0);
+        assertThat(meterRegistry.counter("ai.decision.fallback", "mode", "batch", "reason", "limit")
+                .count()).isEqualTo(1.0);
+        verify(openAIService, times(2)).chatAsync(anyString());
+    }
+
+    private static Task task(Long id, String title, String priority, TaskState state) {
+        Task task = new Task();
+        task.setId(id);
+        task.setTitle(title);
+        task.setPriority(priority);
+        task.setState(state);
+        return task;
+    }
+}
@@ -1 +1 @@
-INSERT INTO users (id, email, password) VALUES (1, 'user', 'pass');
+MERGE INTO users (id, email, password) KEY (id) VALUES (1, 'user', 'pass');
@@ -42,3 +42,37 @@ export async function deleteSubtask(
 ): Promise<void> {
   await api.delete(`/api/tasks/${taskId}/subtasks/${subtaskId}`);
 }
+
+// ==============================
+// 非同期ジョブ版のサブタスク生成
+// ==============================
+export interface SubtaskJob {
+  jobId: string;
+  taskId: number;
+  status: "PENDING" | "RUNNING" | "SUCCEEDED" | "FAILED";
+  subtasks: Subtask[] | null;
+  error: string | null;
+}
+
+export async function startGenerateSubtasksJob(
+  taskId: number,
+  request: GenerateSubtasksRequest
+): Promise<SubtaskJob> {
+  const res = await api.post(
+    `/api/tasks/${taskId}/subtasks/generate/jobs`,
+    request
+  );
+  return res.data;
+}
+
+export async function getGenerateSubtasksJob(
+  taskId: number,
+  jobId: string,
+  signal?: AbortSignal
+): Promise<SubtaskJob> {
+  const res = await api.get(
+    `/api/tasks/${taskId}/subtasks/generate/jobs/${jobId}`,
+    { signal }
+  );
+  return res.data;
+}
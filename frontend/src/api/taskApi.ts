@@ -1,11 +1,38 @@
 import api from "./axiosInstance";
-import type { TaskItem } from "../types/task";
+import type { TaskBoardItem, TaskChanges, TaskItem, TaskPage, TaskPageQuery } from "../types/task";
 
 export async function getTasks(): Promise<TaskItem[]> {
   const res = await api.get("/api/tasks");
   return res.data;
 }
 
+// 前回の version 以降に追加・変更・削除したタスクだけを取得（since=0 なら全件）
+export async function getTaskChanges(since: number): Promise<TaskChanges> {
+  const isLoggedIn = !!localStorage.getItem("token");
+  const url = isLoggedIn ? "/api/tasks/changes" : "/api/tasks/public/changes";
+
+  const res = await api.get(url, { params: { since } });
+  return res.data;
+}
+
+// サーバー側でフィルタ / ソートしたタスクを1ページずつ取得
+export async function getTaskPage(query: TaskPageQuery = {}): Promise<TaskPage> {
+  const isLoggedIn = !!localStorage.getItem("token");
+  const url = isLoggedIn ? "/api/tasks/page" : "/api/tasks/public/page";
+
+  const res = await api.get(url, { params: query });
+  return res.data;
+}
+
+// ボード用：サブタスクの進捗つきタスク一覧を1リクエストで取得
+export async function getTaskBoard(includeSubtasks = false): Promise<TaskBoardItem[]> {
+  const isLoggedIn = !!localStorage.getItem("token");
+  const url = isLoggedIn ? "/api/tasks/board" : "/api/tasks/public/board";
+
+  const res = await api.get(url, { params: { includeSubtasks } });
+  return res.data;
+}
+
 export async function addTask(task: Partial<TaskItem>): Promise<TaskItem> {
   const res = await api.post("/api/tasks", task);
   return res.data;
@@ -75,3 +102,39 @@ export async function getTaskAiLogs(
 
 
 
+
+// AI判断ログ（新しい順に1ページずつ）
+export interface AiDecisionLogPage {
+  items: AiDecisionLog[];
+  nextCursor: string | null;
+  hasNext: boolean;
+}
+
+export async function getTaskAiLogPage(
+  taskId: number,
+  query: { cursor?: string; limit?: number } = {}
+): Promise<AiDecisionLogPage> {
+  const isLoggedIn = !!localStorage.getItem("token");
+
+  const url = isLoggedIn
+    ? `/api/tasks/${taskId}/ai/logs/page`
+    : `/api/tasks/public/${taskId}/ai/logs/page`;
+
+  const res = await api.get(url, { params: query });
+  return res.data;
+}
+
+// タスクごとの最新AI判断（taskIds 省略時はボード全体）
+export async function getLatestAiDecisions(
+  taskIds?: number[]
+): Promise<AiDecisionLog[]> {
+  const isLoggedIn = !!localStorage.getItem("token");
+
+  const url = isLoggedIn
+    ? "/api/tasks/ai/logs/latest"
+    : "/api/tasks/public/ai/logs/latest";
+
+  const params = taskIds && taskIds.length > 0 ? { taskIds: taskIds.join(",") } : undefined;
+  const res = await api.get(url, { params });
+  return res.data;
+}
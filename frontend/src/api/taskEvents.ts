@@ -0,0 +1,81 @@
+import api from "./axiosInstance";
+import type { TaskEvent } from "../types/task";
+
+// 再接続の待ち時間（失敗が続くたびに倍にする）
+const RETRY_MIN_MS = 1000;
+const RETRY_MAX_MS = 30000;
+
+// タスクのライブ更新（SSE）を購読する。戻り値の関数で停止する。
+// EventSource は Authorization ヘッダーを付けられないので fetch のストリームで読む。
+// 切断されたら自動で再接続し、onOpen を呼ぶ（切断中の変更は差分同期で取り戻す）。
+export function subscribeTaskEvents(
+  onEvent: (event: TaskEvent) => void,
+  onOpen?: () => void
+): () => void {
+  const controller = new AbortController();
+  let retryMs = RETRY_MIN_MS;
+
+  const connect = async () => {
+    while (!controller.signal.aborted) {
+      try {
+        const token = localStorage.getItem("token");
+        const url = token ? "/api/tasks/events" : "/api/tasks/public/events";
+        const res = await fetch(`${api.defaults.baseURL ?? ""}${url}`, {
+          headers: {
+            Accept: "text/event-stream",
+            ...(token ? { Authorization: `Bearer ${token}` } : {}),
+          },
+          signal: controller.signal,
+        });
+        if (!res.ok || !res.body) {
+          throw new Error(`event stream failed: ${res.status}`);
+        }
+
+        retryMs = RETRY_MIN_MS;
+        onOpen?.();
+        await readEvents(res.body, onEvent);
+      } catch (err: unknown) {
+        if (controller.signal.aborted) return;
+        if (import.meta.env.DEV) {
+          console.warn("📡 Task events disconnected:", err);
+        }
+      }
+
+      await new Promise((resolve) => setTimeout(resolve, retryMs));
+      retryMs = Math.min(retryMs * 2, RETRY_MAX_MS);
+    }
+  };
+
+  connect();
+  return () => controller.abort();
+}
+
+// "event:" / "data:" 行を空行ごとに1イベントとして読む（":" で始まるキープアライブは無視）
+async function readEvents(
+  body: ReadableStream<Uint8Array>,
+  onEvent: (event: TaskEvent) => void
+) {
+  const reader = body.pipeThrough(new TextDecoderStream()).getReader();
+  let buffer = "";
+
+  for (;;) {
+    const { value, done } = await reader.read();
+    if (done) return;
+    buffer += value;
+
+    let end;
+    while ((end = buffer.indexOf("\n\n")) >= 0) {
+      const block = buffer.slice(0, end);
+      buffer = buffer.slice(end + 2);
+
+      const data = block
+        .split("\n")
+        .filter((line) => line.startsWith("data:"))
+        .map((line) => line.slice(5))
+        .join("\n");
+      if (data) {
+        onEvent(JSON.parse(data) as TaskEvent);
+      }
+    }
+  }
+}
@@ -1,9 +1,10 @@
-import { useEffect, useState, useMemo } from "react";
+import { useEffect, useState, useMemo, useRef } from "react";
 import api from "../api/axiosInstance";
 import type { TaskItem, TaskState, EditData, Priority } from "../types/task";
 import { generateSubtasks } from "../api/subtaskApi";
 import toast from "react-hot-toast";
-import { updateTaskState } from "../api/taskApi";
+import { getTaskChanges, updateTaskState } from "../api/taskApi";
+import { subscribeTaskEvents } from "../api/taskEvents";
 import axios from "axios";
 import { useCallback } from "react";
 
@@ -28,21 +29,43 @@ export function useTasks() {
 
   const token = localStorage.getItem("token");
 
+  // 差分同期：最後に受け取った version（0 なら次は全件）
+  const versionRef = useRef(0);
+
+  // ライブ更新で続けて届いたイベントは1回の差分同期にまとめる
+  const LIVE_SYNC_DELAY_MS = 300;
+  const liveSyncTimer = useRef<ReturnType<typeof setTimeout> | null>(null);
+
   // ==============================
   // API 呼び分け（★★★修正ポイント★★★）
+  // 前回の version 以降の変更だけを受け取り、手元の一覧にマージする
   // ==============================
-  const fetchTasks = useCallback(async () => {
-    setLoading(true);
-    setError(null);
+  // background=true（ライブ更新から）はローディング表示もエラー通知もしない
+  const fetchTasks = useCallback(async (background = false) => {
+    if (!background) {
+      setLoading(true);
+      setError(null);
+    }
 
     try {
-      const url = token ? "/api/tasks" : "/api/tasks/public";
-      const res = await api.get(url);
-      // レスポンスが配列であることを確認
-      const tasksData = Array.isArray(res.data) ? res.data : [];
-      setTasks(tasksData);
+      const changes = await getTaskChanges(versionRef.current);
+      if (changes.full) {
+        setTasks(Array.isArray(changes.tasks) ? changes.tasks : []);
+      } else if (changes.tasks.length > 0 || changes.deleted.length > 0) {
+        const deleted = new Set(changes.deleted);
+        const changed = new Map(changes.tasks.map((t) => [t.id, t] as const));
+        setTasks((prev) => {
+          const merged = prev
+            .filter((t) => !deleted.has(t.id))
+            .map((t) => changed.get(t.id) ?? t);
+          const known = new Set(merged.map((t) => t.id));
+          return [...merged, ...changes.tasks.filter((t) => !known.has(t.id))];
+        });
+      }
+      versionRef.current = changes.version;
     } catch (err: unknown) {
       console.error("Failed to fetch tasks:", err);
+      if (background) return;
       let errorMessage = "タスク取得に失敗しました";
       if (axios.isAxiosError(err)) {
         if (err.response?.status === 404) {
@@ -54,20 +77,53 @@ export function useTasks() {
       }
       setError(errorMessage);
       toast.error(errorMessage);
-      // エラー時も空配列を設定
+      // エラー時も空配列を設定（次回は全件から取り直す）
       setTasks([]);
+      versionRef.current = 0;
     } finally {
-      setLoading(false);
+      if (!background) setLoading(false);
     }
   }, [token]);
 
   // ==============================
-  // 初回読み込み
+  // 初回読み込み（ログイン状態が変わったら全件から取り直す）
   // ==============================
   useEffect(() => {
+    versionRef.current = 0;
     fetchTasks();
   }, [fetchTasks]);
 
+  // ==============================
+  // ライブ更新（SSE）：他のタブ・端末での変更も差分同期で反映する
+  // ==============================
+  useEffect(() => {
+    const scheduleSync = () => {
+      if (liveSyncTimer.current) clearTimeout(liveSyncTimer.current);
+      liveSyncTimer.current = setTimeout(() => {
+        liveSyncTimer.current = null;
+        fetchTasks(true);
+      }, LIVE_SYNC_DELAY_MS);
+    };
+
+    const unsubscribe = subscribeTaskEvents(
+      (event) => {
+        if (event.type === "task") {
+          scheduleSync();
+        } else if (event.type === "resync") {
+          versionRef.current = 0;
+          scheduleSync();
+        }
+      },
+      // 再接続時は切断中の変更を取り戻す（初回は上の読み込みと重なるが差分なので空で返る）
+      scheduleSync
+    );
+
+    return () => {
+      unsubscribe();
+      if (liveSyncTimer.current) clearTimeout(liveSyncTimer.current);
+    };
+  }, [fetchTasks]);
+
   const handleAdd = async (task: Partial<TaskItem>) => {
     try {
       const url = token ? "/api/tasks" : "/api/tasks/public";
@@ -10,8 +10,43 @@ export interface TaskItem {
   priority: Priority;
   state: TaskState;
   createdAt: string;
+  updatedAt?: string | null;
 }
 
+// 差分同期のレスポンス（次回は version を since に渡す）
+// full=true なら tasks は全件。false なら tasks は追加・変更分、deleted は削除したタスクの ID
+export interface TaskChanges {
+  version: number;
+  full: boolean;
+  tasks: TaskItem[];
+  deleted: number[];
+}
+
+// ライブ更新（SSE）のイベント。中身は「何が変わったか」だけなので、受け取ったら差分同期で取り直す
+export interface TaskEvent {
+  type: "ready" | "task" | "resync" | "ai-decision";
+  taskId: number | null;
+}
+
+// キーセットページングのレスポンス
+export interface TaskPage {
+  items: TaskItem[];
+  nextCursor: string | null;
+  hasNext: boolean;
+}
+
+export type TaskSort = "CREATED_AT" | "DUE_DATE" | "PRIORITY";
+
+export interface TaskPageQuery {
+  sort?: TaskSort;
+  cursor?: string;
+  limit?: number;
+  state?: TaskState;
+  completed?: boolean;
+  priority?: Priority;
+  dueFrom?: string;
+  dueTo?: string;
+}
 
 export interface Subtask {
   id: number;
@@ -25,3 +60,10 @@ export interface EditData {
   dueDate: string;
   priority: Priority;
 }
+
+// ボード表示用（サブタスクの件数・完了数つき）
+export interface TaskBoardItem extends TaskItem {
+  subtaskTotal: number;
+  subtaskCompleted: number;
+  subtasks: Subtask[] | null;
+}